@@ -0,0 +1,237 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.database.UuidCodec;
+import com.crystaltides.core.link.AccountLinker;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * /link under a rush: 8 threads consuming codes at once against H2 in MySQL
+ * mode. SampleTime gives the latency percentiles (look at p0.99); the number of
+ * round trips per link is printed at the end of each trial. H2 is in-process,
+ * so {@code rttMicros} adds the network hop a real MySQL server costs.
+ * <p>
+ * LEGACY replays the old autocommit flow (lookup, two cleanups, upsert,
+ * empty-row delete, code delete) for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AccountLinkBenchmark {
+
+    // Calls that cost a round trip to the server
+    private static final Set<String> ROUND_TRIPS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeBatch", "commit", "rollback");
+    private static final int DISCORD_USERS = 2_000;
+
+    @Param({ "TRANSACTION", "LEGACY" })
+    public String flow;
+
+    @Param({ "0", "300" })
+    public long rttMicros;
+
+    private HikariDataSource dataSource;
+    private final LongAdder roundTrips = new LongAdder();
+    private final LongAdder links = new LongAdder();
+    private final AtomicInteger codeSequence = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Attempt {
+        UUID player;
+        String code;
+
+        @Setup(Level.Invocation)
+        public void issueCode(AccountLinkBenchmark bench) throws SQLException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Returning players relink and sometimes steal a Discord id from someone else
+            player = new UUID(0L, random.nextInt(DISCORD_USERS * 2));
+            code = Integer.toString(bench.codeSequence.incrementAndGet(), 36).toUpperCase();
+            boolean discord = random.nextBoolean();
+            try (Connection conn = bench.dataSource.getConnection();
+                    PreparedStatement ps = conn.prepareStatement(
+                            "INSERT INTO universal_links (code, source, source_id, expires_at) VALUES (?, ?, ?, ?)")) {
+                ps.setString(1, code);
+                ps.setString(2, discord ? "discord" : "web");
+                ps.setString(3, (discord ? "d" : "w") + random.nextInt(DISCORD_USERS));
+                ps.setLong(4, System.currentTimeMillis() + 60_000L);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:links-" + flow + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        config.setMaximumPoolSize(10);
+        dataSource = new HikariDataSource(config);
+
+        // Same definitions as DatabaseModule#schemaMigrations
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE universal_links (code VARCHAR(10) PRIMARY KEY, source VARCHAR(20) NOT NULL, "
+                    + "source_id VARCHAR(100) NOT NULL, player_name VARCHAR(16), expires_at BIGINT NOT NULL, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            st.execute("CREATE TABLE linked_accounts (minecraft_uuid VARCHAR(36) PRIMARY KEY, "
+                    + "minecraft_name VARCHAR(16), discord_id VARCHAR(20) UNIQUE, discord_tag VARCHAR(100), "
+                    + "web_user_id VARCHAR(100) UNIQUE, gacha_balance BIGINT DEFAULT 0, unlocked_tiers TEXT, "
+                    + "linked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (links.sum() > 0) {
+            System.out.printf("%n[%s, rtt=%dus] %.2f round trips per link (%d links)%n", flow, rttMicros,
+                    roundTrips.sum() / (double) links.sum(), links.sum());
+        }
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Object link(Attempt attempt) throws SQLException {
+        try (Connection conn = counting(dataSource.getConnection())) {
+            links.increment();
+            if (flow.equals("LEGACY")) {
+                return legacyLink(conn, attempt.player, "Player", attempt.code);
+            }
+            return AccountLinker.link(conn, UuidCodec.STRING, attempt.player, "Player", attempt.code, System.currentTimeMillis());
+        } catch (SQLException e) {
+            // Two players grabbing the same Discord id at the same instant: still a measured attempt
+            return e;
+        }
+    }
+
+    /**
+     * The pre-transaction flow from WebBridgeModule, statement for statement.
+     */
+    private static boolean legacyLink(Connection conn, UUID uuid, String playerName, String code)
+            throws SQLException {
+        String source;
+        String sourceId;
+        try (PreparedStatement stmt = conn
+                .prepareStatement("SELECT source, source_id, expires_at FROM universal_links WHERE code = ?")) {
+            stmt.setString(1, code);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || System.currentTimeMillis() > rs.getLong("expires_at"))
+                    return false;
+                source = rs.getString("source");
+                sourceId = rs.getString("source_id");
+            }
+        }
+
+        String uuidStr = uuid.toString();
+        boolean discord = source.equals("discord");
+        String column = discord ? "discord_id" : "web_user_id";
+        String clear = discord ? "discord_id = NULL, discord_tag = NULL" : "web_user_id = NULL";
+        try (PreparedStatement clean = conn
+                .prepareStatement("UPDATE linked_accounts SET " + clear + " WHERE " + column + " = ?")) {
+            clean.setString(1, sourceId);
+            clean.executeUpdate();
+        }
+        try (PreparedStatement clean = conn
+                .prepareStatement("UPDATE linked_accounts SET " + clear + " WHERE minecraft_uuid = ?")) {
+            clean.setString(1, uuidStr);
+            clean.executeUpdate();
+        }
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO linked_accounts (minecraft_uuid, "
+                + "minecraft_name, " + column + ") VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE minecraft_name = ?, "
+                + column + " = ?")) {
+            insert.setString(1, uuidStr);
+            insert.setString(2, playerName);
+            insert.setString(3, sourceId);
+            insert.setString(4, playerName);
+            insert.setString(5, sourceId);
+            insert.executeUpdate();
+        }
+        try (PreparedStatement cleanupEmpty = conn.prepareStatement(
+                "DELETE FROM linked_accounts WHERE minecraft_uuid IS NULL AND discord_id IS NULL AND web_user_id IS NULL")) {
+            cleanupEmpty.executeUpdate();
+        }
+        try (PreparedStatement cleanupCode = conn.prepareStatement("DELETE FROM universal_links WHERE code = ?")) {
+            cleanupCode.setString(1, code);
+            cleanupCode.executeUpdate();
+        }
+        return true;
+    }
+
+    /**
+     * Wraps a connection so every statement execution, commit and rollback is counted.
+     */
+    private Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("setAutoCommit") && (boolean) args[0] != target.getAutoCommit()) {
+                        roundTrip(); // SET autocommit=... on MySQL
+                    }
+                    Object result = invoke(method, target, args);
+                    if (ROUND_TRIPS.contains(method.getName())) {
+                        roundTrip();
+                    }
+                    if (result instanceof PreparedStatement statement) {
+                        return countingStatement(statement);
+                    }
+                    return result;
+                });
+    }
+
+    private PreparedStatement countingStatement(PreparedStatement target) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    if (ROUND_TRIPS.contains(method.getName())) {
+                        roundTrip();
+                    }
+                    return invoke(method, target, args);
+                });
+    }
+
+    private void roundTrip() {
+        roundTrips.increment();
+        if (rttMicros > 0) {
+            LockSupport.parkNanos(rttMicros * 1_000L);
+        }
+    }
+
+    private static Object invoke(java.lang.reflect.Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
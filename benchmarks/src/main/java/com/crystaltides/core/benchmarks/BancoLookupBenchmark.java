@@ -0,0 +1,127 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.modules.BancoModule;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login-time balance lookups against a Banco-like accounts.db, comparing the
+ * read-only reader pool with the old single shared connection. 8 threads play
+ * the role of concurrent AsyncPlayerPreLoginEvent handlers; optionally a
+ * background writer imitates the Banco plugin committing transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BancoLookupBenchmark {
+
+    private static final int ACCOUNTS = 5_000;
+
+    @Param({ "READ_ONLY", "SHARED" })
+    public BancoModule.AccessMode mode;
+
+    @Param({ "false", "true" })
+    public boolean bancoWriter;
+
+    private File databaseFile;
+    private HikariDataSource dataSource;
+    private Thread writer;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        databaseFile = Files.createTempFile("banco-accounts", ".db").toFile();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+                Statement st = conn.createStatement()) {
+            st.execute("PRAGMA journal_mode = WAL");
+            st.execute("CREATE TABLE accounts (player_name TEXT PRIMARY KEY, balance INTEGER NOT NULL)");
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO accounts VALUES (?, ?)")) {
+                for (int i = 0; i < ACCOUNTS; i++) {
+                    ps.setString(1, "Player" + i);
+                    ps.setLong(2, i * 137L);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+
+        dataSource = BancoModule.createDataSource(databaseFile, mode, 4, 250);
+
+        if (bancoWriter) {
+            running = true;
+            writer = new Thread(this::writeLoop, "banco-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        running = false;
+        if (writer != null) {
+            writer.join();
+        }
+        dataSource.close();
+        Files.deleteIfExists(databaseFile.toPath());
+        Files.deleteIfExists(new File(databaseFile.getPath() + "-wal").toPath());
+        Files.deleteIfExists(new File(databaseFile.getPath() + "-shm").toPath());
+    }
+
+    @Benchmark
+    public long loginLookup() throws SQLException {
+        String name = "Player" + ThreadLocalRandom.current().nextInt(ACCOUNTS);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement("SELECT balance FROM accounts WHERE player_name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1L;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+                PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE accounts SET balance = balance + 1 WHERE player_name = ?")) {
+            while (running) {
+                ps.setString(1, "Player" + ThreadLocalRandom.current().nextInt(ACCOUNTS));
+                ps.executeUpdate();
+                Thread.sleep(1);
+            }
+        } catch (Exception e) {
+            if (running) {
+                throw new IllegalStateException("Banco writer failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.database.IoExecutor;
+import com.crystaltides.core.managers.ModuleManager;
+import com.crystaltides.core.metrics.MetricsRegistry;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds a CrystalCore instance that runs outside of a server.
+ * <p>
+ * JavaPlugin refuses to be constructed without a PluginClassLoader, so the
+ * plugin is allocated without running constructors and the few fields the
+ * hot paths touch (server, logger, config, data folder) are wired by hand.
+ * Every other Bukkit type is a dynamic proxy answering defaults.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    public static CrystalCore newPlugin() {
+        try {
+            CrystalCore plugin = allocate(CrystalCore.class);
+
+            Logger logger = Logger.getLogger("CrystalCore-Bench");
+            logger.setLevel(Level.OFF);
+
+            BukkitScheduler scheduler = stub(BukkitScheduler.class, Map.of());
+            Server server = stub(Server.class, Map.of("getScheduler", scheduler, "getLogger", logger));
+
+            setField(JavaPlugin.class, plugin, "server", server);
+            setField(JavaPlugin.class, plugin, "logger", logger);
+            setField(JavaPlugin.class, plugin, "newConfig", loadDefaultConfig());
+            setField(JavaPlugin.class, plugin, "dataFolder",
+                    Files.createTempDirectory("crystalcore-bench").resolve("CrystalCore").toFile());
+            setField(CrystalCore.class, plugin, "metrics", new MetricsRegistry());
+            setField(CrystalCore.class, plugin, "ioExecutor", new IoExecutor(plugin, 10, 256));
+            setField(CrystalCore.class, plugin, "moduleManager", new ModuleManager(plugin));
+            return plugin;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not build benchmark plugin", e);
+        }
+    }
+
+    /**
+     * Creates a proxy for any Bukkit interface. Methods listed in {@code answers}
+     * return the given value, everything else returns null/0/false.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Object answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer;
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T getField(Object target, String name) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            return (T) field.get(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing field " + name + " on " + target.getClass().getName(), e);
+        }
+    }
+
+    private static void setField(Class<?> owner, Object target, String name, Object value)
+            throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static YamlConfiguration loadDefaultConfig() throws Exception {
+        try (InputStream in = CrystalCore.class.getClassLoader().getResourceAsStream("config.yml")) {
+            if (in == null) {
+                return new YamlConfiguration();
+            }
+            return YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static <T> T allocate(Class<T> type) throws ReflectiveOperationException {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        Object unsafe = theUnsafe.get(null);
+        return type.cast(unsafeClass.getMethod("allocateInstance", Class.class).invoke(unsafe, type));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
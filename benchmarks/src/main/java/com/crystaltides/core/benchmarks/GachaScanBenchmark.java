@@ -0,0 +1,99 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.modules.GachaModule;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full inventory scan done by GachaModule on join and /crystalcore scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GachaScanBenchmark {
+
+    // 36 storage slots + 4 armor + offhand
+    private static final int INVENTORY_SIZE = 41;
+
+    /** How many slots hold a configured gacha item. */
+    @Param({ "0", "3", "41" })
+    public int gachaItems;
+
+    private GachaModule gacha;
+    private ItemStack[] contents;
+
+    @Setup
+    public void setup() {
+        CrystalCore plugin = BenchmarkSupport.newPlugin();
+        gacha = new GachaModule(plugin);
+        gacha.loadConfig();
+
+        int[] tierModels = { 1001, 1002, 1003 };
+        contents = new ItemStack[INVENTORY_SIZE];
+        for (int slot = 0; slot < INVENTORY_SIZE; slot++) {
+            if (slot < gachaItems) {
+                contents[slot] = new BenchItemStack(Material.PAPER, tierModels[slot % tierModels.length]);
+            } else if (slot % 4 == 0) {
+                contents[slot] = null; // empty slot
+            } else if (slot % 4 == 1) {
+                contents[slot] = new BenchItemStack(Material.STONE, -1); // plain item, no meta
+            } else {
+                contents[slot] = new BenchItemStack(Material.DIAMOND, 42); // custom item, not a tier
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<String> fullInventoryScan() {
+        return gacha.collectTiers(contents);
+    }
+
+    /** ItemStack that does not need a running server to expose its meta. */
+    static final class BenchItemStack extends ItemStack {
+        private final Material type;
+        private final ItemMeta meta;
+
+        BenchItemStack(Material type, int customModelData) {
+            this.type = type;
+            this.meta = customModelData < 0 ? null
+                    : BenchmarkSupport.stub(ItemMeta.class, Map.of(
+                            "hasCustomModelData", Boolean.TRUE,
+                            "getCustomModelData", customModelData));
+        }
+
+        @Override
+        public Material getType() {
+            return type;
+        }
+
+        @Override
+        public boolean hasItemMeta() {
+            return meta != null;
+        }
+
+        @Override
+        public ItemMeta getItemMeta() {
+            return meta;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.commands.MoneyCommand;
+import com.crystaltides.core.modules.ProfileModule;
+import com.crystaltides.core.profile.CrystalProfile;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /money end to end: profile lookup, balance formatting and message building.
+ * The player is a proxy, so each sendMessage also pays for one argument array;
+ * that cost is constant across runs and does not hide regressions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyCommandBenchmark {
+
+    private static final String[] NO_ARGS = new String[0];
+
+    @Param({ "57", "1234567", "3250000000" })
+    public long balance;
+
+    private MoneyCommand command;
+    private Player player;
+
+    @Setup
+    public void setup() {
+        CrystalCore plugin = BenchmarkSupport.newPlugin();
+        ProfileModule profileModule = new ProfileModule(plugin);
+        plugin.getModuleManager().registerModule(profileModule);
+
+        UUID uuid = UUID.randomUUID();
+        CrystalProfile profile = new CrystalProfile(uuid, "BenchPlayer");
+        profile.setKillucoins(balance);
+        Map<UUID, CrystalProfile> profiles = BenchmarkSupport.getField(profileModule, "profiles");
+        profiles.put(uuid, profile);
+
+        player = BenchmarkSupport.stub(Player.class, Map.of("getUniqueId", uuid, "getName", "BenchPlayer"));
+        command = new MoneyCommand(plugin);
+    }
+
+    @Benchmark
+    public boolean money() {
+        return command.onCommand(player, null, "money", NO_ARGS);
+    }
+}
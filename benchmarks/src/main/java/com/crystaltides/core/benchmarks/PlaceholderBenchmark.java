@@ -0,0 +1,62 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.modules.ProfileModule;
+import com.crystaltides.core.modules.WebBridgeModule;
+import com.crystaltides.core.profile.CrystalProfile;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * %crystalcore_...% resolution as scoreboard/tab plugins call it every few ticks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaceholderBenchmark {
+
+    @Param({ "status", "balance_formatted", "rank", "tiers" })
+    public String identifier;
+
+    private WebBridgeModule.CrystalCoreExpansion expansion;
+    private Player player;
+
+    @Setup
+    public void setup() {
+        CrystalCore plugin = BenchmarkSupport.newPlugin();
+        ProfileModule profileModule = new ProfileModule(plugin);
+        plugin.getModuleManager().registerModule(profileModule);
+
+        UUID uuid = UUID.randomUUID();
+        CrystalProfile profile = new CrystalProfile(uuid, "BenchPlayer");
+        profile.setLinked(true);
+        profile.setKillucoins(1_234_567L);
+        Map<UUID, CrystalProfile> profiles = BenchmarkSupport.getField(profileModule, "profiles");
+        profiles.put(uuid, profile);
+
+        player = BenchmarkSupport.stub(Player.class, Map.of("getUniqueId", uuid, "getName", "BenchPlayer"));
+        expansion = new WebBridgeModule.CrystalCoreExpansion(plugin);
+    }
+
+    @Benchmark
+    public String onPlaceholderRequest() {
+        return expansion.onPlaceholderRequest(player, identifier);
+    }
+}
@@ -0,0 +1,89 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.managers.ModuleManager;
+import com.crystaltides.core.modules.BancoModule;
+import com.crystaltides.core.modules.DatabaseModule;
+import com.crystaltides.core.modules.GachaModule;
+import com.crystaltides.core.modules.ProfileModule;
+import com.crystaltides.core.modules.StaffStatusModule;
+import com.crystaltides.core.modules.WebBridgeModule;
+import com.crystaltides.core.modules.WebSocketModule;
+import com.crystaltides.core.profile.CrystalProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Module lookup + profile cache hit, the pair every command and placeholder does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfileLookupBenchmark {
+
+    private static final int ONLINE_PLAYERS = 200;
+
+    private ModuleManager moduleManager;
+    private ModuleHandle<ProfileModule> profileHandle;
+    private UUID[] online;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        CrystalCore plugin = BenchmarkSupport.newPlugin();
+        moduleManager = plugin.getModuleManager();
+
+        // Same registration set as CrystalCore#onEnable
+        moduleManager.registerModule(new DatabaseModule(plugin));
+        moduleManager.registerModule(new BancoModule(plugin));
+        moduleManager.registerModule(new StaffStatusModule(plugin));
+        moduleManager.registerModule(new GachaModule(plugin));
+        moduleManager.registerModule(new WebSocketModule(plugin));
+        ProfileModule profileModule = new ProfileModule(plugin);
+        moduleManager.registerModule(profileModule);
+        moduleManager.registerModule(new WebBridgeModule(plugin));
+
+        profileHandle = moduleManager.handle(ProfileModule.class);
+
+        Map<UUID, CrystalProfile> profiles = BenchmarkSupport.getField(profileModule, "profiles");
+        online = new UUID[ONLINE_PLAYERS];
+        for (int i = 0; i < ONLINE_PLAYERS; i++) {
+            online[i] = UUID.randomUUID();
+            profiles.put(online[i], new CrystalProfile(online[i], "Player" + i));
+        }
+    }
+
+    @Benchmark
+    public ProfileModule getModule() {
+        return moduleManager.getModule(ProfileModule.class);
+    }
+
+    @Benchmark
+    public CrystalProfile getModuleAndProfile() {
+        UUID uuid = online[cursor++ % ONLINE_PLAYERS];
+        ProfileModule profileModule = moduleManager.getModule(ProfileModule.class);
+        return profileModule.getProfile(uuid);
+    }
+
+    @Benchmark
+    public CrystalProfile handleAndProfile() {
+        UUID uuid = online[cursor++ % ONLINE_PLAYERS];
+        return profileHandle.get().getProfile(uuid);
+    }
+}
@@ -0,0 +1,62 @@
+package com.crystaltides.core.benchmarks;
+
+import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.network.CrystalWebSocketServer;
+import org.java_websocket.WebSocket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inbound web panel message parsing, legacy prefixes and versioned JSON frames.
+ * The server is never started, so nothing is bound; broadcasts, scheduled
+ * console commands and ack replies hit stubbed services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebSocketMessageBenchmark {
+
+    @Param({
+            "alert:Reinicio en 5 minutos",
+            "console:say hola",
+            "unknown:payload",
+            "{\"v\":1,\"id\":\"a1\",\"type\":\"alert\",\"payload\":{\"message\":\"Reinicio en 5 minutos\"}}",
+            "{\"v\":1,\"ops\":["
+                    + "{\"id\":\"a1\",\"type\":\"alert\",\"payload\":{\"message\":\"Evento en 10 minutos\"}},"
+                    + "{\"id\":\"a2\",\"type\":\"alert\",\"payload\":{\"message\":\"Evento en 5 minutos\"}},"
+                    + "{\"id\":\"c1\",\"type\":\"console\",\"payload\":{\"command\":\"say hola\"}},"
+                    + "{\"id\":\"c2\",\"type\":\"console\",\"payload\":{\"command\":\"say adios\"}},"
+                    + "{\"id\":\"p1\",\"type\":\"ping\"}]}"
+    })
+    public String message;
+
+    private CrystalWebSocketServer server;
+    private WebSocket conn;
+
+    @Setup
+    public void setup() {
+        CrystalCore plugin = BenchmarkSupport.newPlugin();
+        server = new CrystalWebSocketServer(plugin, 0, "bench-token");
+        conn = BenchmarkSupport.stub(WebSocket.class, Map.of("isOpen", Boolean.TRUE));
+    }
+
+    @Benchmark
+    public void onMessage() {
+        server.onMessage(conn, message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.crystaltides.core;
 
+import com.crystaltides.core.database.IoExecutor;
 import com.crystaltides.core.managers.ModuleManager;
+import com.crystaltides.core.metrics.MetricsRegistry;
 import com.crystaltides.core.modules.DatabaseModule;
 import com.crystaltides.core.modules.ProfileModule;
 import com.crystaltides.core.modules.WebBridgeModule;
@@ -16,14 +18,23 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class CrystalCore extends JavaPlugin {
 
     private ModuleManager moduleManager;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private IoExecutor ioExecutor;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
 
+        // Counter rates (messages/s etc.)
+        getServer().getScheduler().runTaskTimerAsynchronously(this, metrics::tick, 20L, 20L);
+
+        // Database work for every module, capped at the MySQL pool size
+        this.ioExecutor = new IoExecutor(this, getConfig().getInt("database.pool-size", 10),
+                getConfig().getInt("database.queue-capacity", 256));
+
         this.moduleManager = new ModuleManager(this);
 
-        // Register Modules (Order matters for dependencies)
+        // Register Modules (startup order comes from each module's declared dependencies)
         moduleManager.registerModule(new DatabaseModule(this));
         // Banco Bridge (SQLite Economy)
         moduleManager.registerModule(new BancoModule(this));
@@ -51,6 +62,9 @@ public class CrystalCore extends JavaPlugin {
         if (moduleManager != null) {
             moduleManager.disableModules();
         }
+        if (ioExecutor != null) {
+            ioExecutor.shutdown(5000);
+        }
         getLogger().info("CrystalCore has been disabled!");
     }
 
@@ -58,6 +72,14 @@ public class CrystalCore extends JavaPlugin {
         return moduleManager;
     }
 
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public IoExecutor getIoExecutor() {
+        return ioExecutor;
+    }
+
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         String msgPrefix = getConfig().getString("messages.prefix", "§b§l[CrystalCore] §8» §7");
@@ -88,6 +110,34 @@ public class CrystalCore extends JavaPlugin {
                 }
                 return true;
             }
+            if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+                if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+                    metrics.reset();
+                    sender.sendMessage(msgPrefix + "§aMétricas reiniciadas.");
+                    return true;
+                }
+                sender.sendMessage(msgPrefix + "Métricas:");
+                for (String line : metrics.describe()) {
+                    sender.sendMessage(line);
+                }
+                return true;
+            }
+            if (args.length > 0 && args[0].equalsIgnoreCase("migrate-uuids")) {
+                DatabaseModule database = moduleManager.getModule(DatabaseModule.class);
+                if (database == null || !database.isEnabled()) {
+                    sender.sendMessage(msgPrefix + "§cEl módulo de base de datos está desactivado.");
+                    return true;
+                }
+                sender.sendMessage(msgPrefix + "§aMigración de UUIDs iniciada, el progreso aparecerá aquí.");
+                sender.sendMessage(msgPrefix + "§eLos demás servidores que usan esta base de datos deben estar apagados.");
+                database.startUuidMigration(line -> {
+                    getLogger().info("[UUID] " + line);
+                    if (sender instanceof org.bukkit.entity.Player) {
+                        sender.sendMessage(msgPrefix + line);
+                    }
+                });
+                return true;
+            }
             if (args.length > 1 && args[0].equalsIgnoreCase("sync")) {
                 String targetName = args[1];
                 org.bukkit.entity.Player target = org.bukkit.Bukkit.getPlayer(targetName);
@@ -105,6 +155,8 @@ public class CrystalCore extends JavaPlugin {
             sender.sendMessage(msgPrefix + "Help:");
             sender.sendMessage(msgPrefix + "§e/crystalcore reload");
             sender.sendMessage(msgPrefix + "§e/crystalcore scan");
+            sender.sendMessage(msgPrefix + "§e/crystalcore stats [reset]");
+            sender.sendMessage(msgPrefix + "§e/crystalcore migrate-uuids");
             return true;
         }
         return false;
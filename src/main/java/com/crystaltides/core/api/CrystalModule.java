@@ -1,13 +1,17 @@
 package com.crystaltides.core.api;
 
 import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.database.IoExecutor;
+import com.crystaltides.core.metrics.MetricsRegistry;
 import org.bukkit.event.Listener;
 
+import java.util.List;
+
 public abstract class CrystalModule implements Module, Listener {
 
     protected final CrystalCore plugin;
     private final String name;
-    private boolean enabled = false;
+    private volatile boolean enabled = false;
 
     public CrystalModule(CrystalCore plugin, String name) {
         this.plugin = plugin;
@@ -30,9 +34,47 @@ public abstract class CrystalModule implements Module, Listener {
         plugin.getLogger().info("[Module] " + name + " disabled.");
     }
 
+    /**
+     * Modules that must be enabled before this one. If any of them fails to
+     * enable, this module is skipped.
+     */
+    public List<Class<? extends CrystalModule>> getDependencies() {
+        return List.of();
+    }
+
+    /**
+     * Modules that should start first when present, but are not required.
+     */
+    public List<Class<? extends CrystalModule>> getSoftDependencies() {
+        return List.of();
+    }
+
+    /**
+     * Slow setup that touches no Bukkit API (connection pools, schema, files).
+     * Runs on a startup thread, in parallel with modules that don't depend on
+     * this one, right before {@link #onEnable()} runs on the main thread.
+     */
+    public void prepare() {
+    }
+
+    /**
+     * Shared metrics registry. Resolve counters/histograms once and keep them in fields.
+     */
+    protected MetricsRegistry metrics() {
+        return plugin.getMetrics();
+    }
+
+    /**
+     * This module's lane on the shared I/O executor. All JDBC work goes through it.
+     */
+    protected IoExecutor.Lane io() {
+        return plugin.getIoExecutor().lane(name);
+    }
+
     @Override
     public void reload() {
         onDisable();
+        prepare();
         onEnable();
     }
 
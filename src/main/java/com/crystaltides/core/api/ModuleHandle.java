@@ -0,0 +1,40 @@
+package com.crystaltides.core.api;
+
+import com.crystaltides.core.managers.ModuleManager;
+
+/**
+ * Stable reference to a module for hot paths. Resolved once and re-resolved only
+ * when modules are registered again, so callers can keep it in a field.
+ */
+public final class ModuleHandle<T extends CrystalModule> {
+
+    private final ModuleManager manager;
+    private final Class<T> type;
+    private T module;
+    private volatile int generation = -1;
+
+    public ModuleHandle(ModuleManager manager, Class<T> type) {
+        this.manager = manager;
+        this.type = type;
+    }
+
+    /**
+     * The registered module, or null if there is none.
+     */
+    public T get() {
+        int current = manager.getGeneration();
+        if (generation != current) {
+            module = manager.getModule(type);
+            generation = current;
+        }
+        return module;
+    }
+
+    /**
+     * The registered module if it is currently enabled, otherwise null.
+     */
+    public T getIfEnabled() {
+        T resolved = get();
+        return resolved != null && resolved.isEnabled() ? resolved : null;
+    }
+}
@@ -1,6 +1,11 @@
 package com.crystaltides.core.commands;
 
 import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.economy.Denomination;
+import com.crystaltides.core.economy.DenominationFormatter;
+import com.crystaltides.core.economy.Leaderboard;
+import com.crystaltides.core.modules.BancoModule;
 import com.crystaltides.core.modules.ProfileModule;
 import com.crystaltides.core.profile.CrystalProfile;
 import org.bukkit.command.Command;
@@ -8,40 +13,72 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
-import java.text.NumberFormat;
-import java.util.Locale;
 
 public class MoneyCommand implements CommandExecutor {
 
     private final CrystalCore plugin;
+    private final ModuleHandle<ProfileModule> profiles;
+    private final ModuleHandle<BancoModule> banco;
 
     public MoneyCommand(CrystalCore plugin) {
         this.plugin = plugin;
+        this.profiles = plugin.getModuleManager().handle(ProfileModule.class);
+        this.banco = plugin.getModuleManager().handle(BancoModule.class);
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length >= 1 && args[0].equalsIgnoreCase("top")) {
+            showTop(sender);
+            return true;
+        }
+
         if (!(sender instanceof Player)) {
             sender.sendMessage("§cSolo jugadores.");
             return true;
         }
 
         Player player = (Player) sender;
-        ProfileModule profileModule = plugin.getModuleManager().getModule(ProfileModule.class);
+        ProfileModule profileModule = profiles.get();
 
         if (profileModule != null) {
             CrystalProfile profile = profileModule.getProfile(player.getUniqueId());
             if (profile != null) {
                 long balance = profile.getKillucoins();
-                String formatted = NumberFormat.getInstance(Locale.US).format(balance);
-
-                // You can add logic here to determine currency rank (Gold, Diamond, etc.)
-                // For now, simple output:
-                player.sendMessage("§b[Banco] §7Tienes: §e" + formatted + " Killucoins!");
+                player.sendMessage("§b[Banco] §7Tienes: §e" + DenominationFormatter.grouped(balance) + " Killucoins! §8("
+                        + DenominationFormatter.compact(balance) + ")");
+                player.sendMessage("§7Rango: §b" + Denomination.rankOf(balance).getDisplayName() + " §8» §f"
+                        + DenominationFormatter.breakdown(balance));
             } else {
                 player.sendMessage("§cError cargando tu perfil.");
             }
         }
         return true;
     }
+
+    private void showTop(CommandSender sender) {
+        BancoModule bancoModule = banco.getIfEnabled();
+        if (bancoModule == null) {
+            sender.sendMessage("§cEl banco no está disponible.");
+            return;
+        }
+
+        Leaderboard leaderboard = bancoModule.getLeaderboard();
+        Leaderboard.Entry[] top = leaderboard.getTop();
+        if (top.length == 0) {
+            sender.sendMessage("§7Todavía no hay cuentas en el ranking.");
+            return;
+        }
+
+        sender.sendMessage("§b[Banco] §7Top " + top.length + " Killucoins:");
+        for (Leaderboard.Entry entry : top) {
+            sender.sendMessage("§e#" + entry.position() + " §f" + entry.line());
+        }
+        if (sender instanceof Player player) {
+            int position = leaderboard.positionOf(player.getName());
+            if (position > top.length) {
+                sender.sendMessage("§7Tu posición: §e#" + position);
+            }
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package com.crystaltides.core.database;
+
+import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.metrics.Counter;
+import com.crystaltides.core.metrics.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs all blocking database work on virtual threads.
+ * <p>
+ * A global semaphore caps concurrent tasks at the MySQL pool size, so a stalled
+ * database leaves queued tasks waiting here instead of piling up threads on
+ * Hikari. Each module gets its own lane with a bounded queue and a share of the
+ * permits, so a burst in one module can't take every connection. Lanes backed
+ * by another database (Banco's SQLite) get permits of their own instead, so a
+ * MySQL stall doesn't hold them up.
+ */
+public class IoExecutor {
+
+    private static final long REJECT_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final CrystalCore plugin;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int laneQueueCapacity;
+    private final int laneConcurrency;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final Histogram waitTimer;
+    private final Counter rejected;
+    private final AtomicLong lastRejectLog = new AtomicLong();
+
+    public IoExecutor(CrystalCore plugin, int maxConcurrency, int laneQueueCapacity) {
+        this.plugin = plugin;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("CrystalCore-IO-", 0).factory());
+        this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+        this.laneQueueCapacity = Math.max(1, laneQueueCapacity);
+        // Keep at least one connection free for the other modules
+        this.laneConcurrency = Math.max(1, maxConcurrency - 1);
+        this.waitTimer = plugin.getMetrics().histogram("io.wait");
+        this.rejected = plugin.getMetrics().counter("io.rejected");
+        plugin.getMetrics().gauge("io.active", () -> Math.max(1, maxConcurrency) - permits.availablePermits());
+    }
+
+    public Lane lane(String name) {
+        return lanes.computeIfAbsent(name, k -> new Lane(k, permits, laneConcurrency));
+    }
+
+    /**
+     * A lane with its own cap, outside the MySQL permits. Replaced if the cap changed (reload).
+     */
+    public Lane lane(String name, int maxConcurrency) {
+        int concurrency = Math.max(1, maxConcurrency);
+        return lanes.compute(name, (k, lane) -> lane != null && lane.concurrency == concurrency
+                ? lane
+                : new Lane(k, new Semaphore(concurrency, true), concurrency));
+    }
+
+    /**
+     * Stops accepting work and waits for running tasks (final flushes) to finish.
+     */
+    public void shutdown(long timeoutMs) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                plugin.getLogger().warning("[IO] Tasks still running after " + timeoutMs + "ms, abandoning them.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    public interface IoTask {
+        void run() throws Exception;
+    }
+
+    public final class Lane {
+
+        private final String name;
+        // Queued + running tasks of this lane
+        private final Semaphore slots = new Semaphore(laneQueueCapacity);
+        private final Semaphore running;
+        private final Semaphore permits;
+        private final int concurrency;
+
+        private Lane(String name, Semaphore permits, int concurrency) {
+            this.name = name;
+            this.permits = permits;
+            this.concurrency = concurrency;
+            this.running = new Semaphore(concurrency, true);
+            plugin.getMetrics().gauge("io." + name + ".queued", () -> laneQueueCapacity - slots.availablePermits());
+        }
+
+        public CompletableFuture<Void> run(IoTask task) {
+            return supply(() -> {
+                task.run();
+                return null;
+            });
+        }
+
+        public <T> CompletableFuture<T> supply(Callable<T> task) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            if (!slots.tryAcquire()) {
+                reject(future, "queue full");
+                return future;
+            }
+
+            long queuedAt = System.nanoTime();
+            try {
+                executor.execute(() -> execute(task, future, queuedAt));
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                reject(future, "shutting down");
+            }
+            return future;
+        }
+
+        private <T> void execute(Callable<T> task, CompletableFuture<T> future, long queuedAt) {
+            boolean laneAcquired = false;
+            boolean globalAcquired = false;
+            try {
+                running.acquire();
+                laneAcquired = true;
+                permits.acquire();
+                globalAcquired = true;
+                waitTimer.recordSince(queuedAt);
+                future.complete(task.call());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (Throwable t) {
+                plugin.getLogger().warning("[IO] Task on " + name + " failed: " + t);
+                future.completeExceptionally(t);
+            } finally {
+                if (globalAcquired)
+                    permits.release();
+                if (laneAcquired)
+                    running.release();
+                slots.release();
+            }
+        }
+
+        private void reject(CompletableFuture<?> future, String reason) {
+            rejected.increment();
+            long now = System.nanoTime();
+            long last = lastRejectLog.get();
+            if (now - last > REJECT_LOG_INTERVAL_NANOS && lastRejectLog.compareAndSet(last, now)) {
+                plugin.getLogger().warning("[IO] Rejected task on " + name + " (" + reason + ").");
+            }
+            future.completeExceptionally(new RejectedExecutionException(name + ": " + reason));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.crystaltides.core.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Applies numbered schema migrations once each, recording them in schema_version.
+ * <p>
+ * MySQL commits DDL implicitly, so a migration can't be rolled back: every
+ * step must be safe to run again (IF NOT EXISTS, {@link #ensureColumn},
+ * {@link #ensureIndex}) in case the server stopped between the change and
+ * its schema_version row. A named lock keeps two servers sharing the
+ * database from migrating at the same time.
+ */
+public class SchemaMigrator {
+
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    public record Migration(int version, String description, Step step) {
+    }
+
+    private static final String LOCK_NAME = "crystalcore_schema";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    private final Logger logger;
+    private final List<Migration> migrations;
+
+    /**
+     * @param migrations in ascending version order
+     */
+    public SchemaMigrator(Logger logger, List<Migration> migrations) {
+        this.logger = logger;
+        this.migrations = migrations;
+    }
+
+    /**
+     * Runs every migration newer than the recorded version, on this one connection.
+     *
+     * @return the schema version afterwards
+     */
+    public int migrate(Connection conn) throws SQLException {
+        execute(conn, "CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INT PRIMARY KEY, " +
+                "description VARCHAR(200) NOT NULL, " +
+                "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+        if (!acquireLock(conn)) {
+            throw new SQLException("Timed out waiting for another server to finish migrating the schema");
+        }
+        try {
+            int current = currentVersion(conn);
+            for (Migration migration : migrations) {
+                if (migration.version() <= current)
+                    continue;
+                long start = System.currentTimeMillis();
+                migration.step().apply(conn);
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                    ps.setInt(1, migration.version());
+                    ps.setString(2, migration.description());
+                    ps.executeUpdate();
+                }
+                current = migration.version();
+                logger.info("Schema migration " + migration.version() + " (" + migration.description() + ") applied in "
+                        + (System.currentTimeMillis() - start) + "ms.");
+            }
+            return current;
+        } finally {
+            releaseLock(conn);
+        }
+    }
+
+    public static void ensureColumn(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        execute(conn, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+
+    public static void ensureIndex(Connection conn, String table, String index, String columns) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return;
+                }
+            }
+        }
+        execute(conn, "CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+    }
+
+    public static void execute(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.execute();
+        }
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MAX(version) FROM schema_version");
+                ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+}
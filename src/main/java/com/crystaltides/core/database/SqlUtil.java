@@ -0,0 +1,21 @@
+package com.crystaltides.core.database;
+
+public final class SqlUtil {
+
+    // Keeps IN (...) lists well below SQLite's and MySQL's bind parameter limits
+    public static final int IN_CHUNK_SIZE = 500;
+
+    private SqlUtil() {
+    }
+
+    /**
+     * Builds "?, ?, ?" for an IN clause with {@code count} parameters.
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.crystaltides.core.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * How a UUID column is stored: the classic VARCHAR(36) text form, or
+ * BINARY(16) (big-endian most/least significant bits) for smaller indexes.
+ */
+public enum UuidCodec {
+
+    STRING("VARCHAR(36)") {
+        @Override
+        public void bind(PreparedStatement ps, int index, UUID uuid) throws SQLException {
+            ps.setString(index, uuid.toString());
+        }
+
+        @Override
+        public UUID read(ResultSet rs, int column) throws SQLException {
+            String value = rs.getString(column);
+            return value == null ? null : UUID.fromString(value);
+        }
+    },
+
+    BINARY("BINARY(16)") {
+        @Override
+        public void bind(PreparedStatement ps, int index, UUID uuid) throws SQLException {
+            ps.setBytes(index, toBytes(uuid));
+        }
+
+        @Override
+        public UUID read(ResultSet rs, int column) throws SQLException {
+            byte[] value = rs.getBytes(column);
+            return value == null ? null : fromBytes(value);
+        }
+    };
+
+    private final String columnType;
+
+    UuidCodec(String columnType) {
+        this.columnType = columnType;
+    }
+
+    public String columnType() {
+        return columnType;
+    }
+
+    public abstract void bind(PreparedStatement ps, int index, UUID uuid) throws SQLException;
+
+    public abstract UUID read(ResultSet rs, int column) throws SQLException;
+
+    public UUID read(ResultSet rs, String column) throws SQLException {
+        return read(rs, rs.findColumn(column));
+    }
+
+    /**
+     * "string" or "binary" from the config; anything else is the text form.
+     */
+    public static UuidCodec fromConfig(String value) {
+        return "binary".equalsIgnoreCase(value) ? BINARY : STRING;
+    }
+
+    /**
+     * The codec matching a column's JDBC type name (BINARY/VARBINARY vs CHAR/VARCHAR).
+     */
+    public static UuidCodec forColumnType(String typeName) {
+        return typeName != null && typeName.toUpperCase().contains("BINARY") ? BINARY : STRING;
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        byte[] bytes = new byte[16];
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (msb >>> (56 - 8 * i));
+            bytes[8 + i] = (byte) (lsb >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Expected 16 bytes, got " + bytes.length);
+        }
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xFF);
+            lsb = (lsb << 8) | (bytes[8 + i] & 0xFF);
+        }
+        return new UUID(msb, lsb);
+    }
+}
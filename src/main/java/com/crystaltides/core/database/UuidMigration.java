@@ -0,0 +1,186 @@
+package com.crystaltides.core.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Converts the VARCHAR(36) UUID columns to BINARY(16) while the server keeps running.
+ * <p>
+ * Per table: add a uuid_bin shadow column, fill it in small primary key
+ * ranges (each UPDATE holds its row locks briefly), then swap it in with one
+ * ALTER. Every step checks what is already done, so an interrupted run just
+ * continues. Rows written after the last fill pass leave uuid_bin NULL, which
+ * makes the NOT NULL swap fail instead of losing them; running again fixes it.
+ * <p>
+ * That relies on strict sql_mode: otherwise MySQL turns those NULLs into
+ * zero bytes and truncates text UUIDs bound by a stale codec into the new
+ * column, both with only a warning. Without it the migration refuses to start.
+ */
+public class UuidMigration {
+
+    public record UuidColumn(String table, String column, String primaryKey) {
+    }
+
+    public static final List<UuidColumn> COLUMNS = List.of(
+            new UuidColumn("linked_accounts", "minecraft_uuid", "minecraft_uuid"),
+            new UuidColumn("player_profiles", "minecraft_uuid", "minecraft_uuid"),
+            new UuidColumn("staff_status", "uuid", "uuid"),
+            new UuidColumn("player_tiers", "uuid", "uuid, tier"));
+
+    private static final String SHADOW = "uuid_bin";
+
+    public interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private final ConnectionSource connections;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final Consumer<String> progress;
+
+    public UuidMigration(ConnectionSource connections, int chunkSize, long pauseMs, Consumer<String> progress) {
+        this.connections = connections;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMs = Math.max(0L, pauseMs);
+        this.progress = progress;
+    }
+
+    public static UuidColumn columnOf(String table) {
+        for (UuidColumn column : COLUMNS) {
+            if (column.table().equalsIgnoreCase(table))
+                return column;
+        }
+        return null;
+    }
+
+    /**
+     * Current storage of a UUID column, or null if the table does not exist yet.
+     */
+    public static UuidCodec detect(Connection conn, UuidColumn column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, column.table(), column.column())) {
+            return rs.next() ? UuidCodec.forColumnType(rs.getString("TYPE_NAME")) : null;
+        }
+    }
+
+    /**
+     * Migrates one table.
+     *
+     * @return true if the column is BINARY(16) afterwards (or the table does not exist)
+     */
+    public boolean migrate(UuidColumn column) throws SQLException, InterruptedException {
+        try (Connection conn = connections.get()) {
+            UuidCodec current = detect(conn, column);
+            if (current == null || current == UuidCodec.BINARY) {
+                return true;
+            }
+            if (!isStrictMode(conn)) {
+                progress.accept("sql_mode has no STRICT_TRANS_TABLES or STRICT_ALL_TABLES, enable it and run again");
+                return false;
+            }
+            if (!hasColumn(conn, column.table(), SHADOW)) {
+                execute(conn, "ALTER TABLE " + column.table() + " ADD COLUMN " + SHADOW + " BINARY(16) NULL");
+                progress.accept(column.table() + ": added " + SHADOW);
+            }
+        }
+
+        long filled = fill(column);
+        progress.accept(column.table() + ": " + filled + " rows converted");
+
+        try (Connection conn = connections.get()) {
+            long invalid = count(conn, "SELECT COUNT(*) FROM " + column.table() + " WHERE " + SHADOW + " IS NULL");
+            if (invalid > 0) {
+                // Either not valid UUIDs (UNHEX gives NULL) or rows written meanwhile: one more short pass
+                fill(column);
+                invalid = count(conn, "SELECT COUNT(*) FROM " + column.table() + " WHERE " + SHADOW + " IS NULL");
+            }
+            if (invalid > 0) {
+                progress.accept(column.table() + ": " + invalid + " rows have no valid UUID in "
+                        + column.column() + ", fix or delete them and run again");
+                return false;
+            }
+
+            execute(conn, "ALTER TABLE " + column.table()
+                    + " DROP PRIMARY KEY, DROP COLUMN " + column.column()
+                    + ", CHANGE " + SHADOW + " " + column.column() + " BINARY(16) NOT NULL"
+                    + ", ADD PRIMARY KEY (" + column.primaryKey() + ")");
+        }
+        progress.accept(column.table() + ": " + column.column() + " is now BINARY(16)");
+        return true;
+    }
+
+    /**
+     * Fills the shadow column range by range along the current (text) key.
+     */
+    private long fill(UuidColumn column) throws SQLException, InterruptedException {
+        String table = column.table();
+        String key = column.column();
+        String nextBound = "SELECT " + key + " FROM " + table + " WHERE " + key + " > ? ORDER BY " + key
+                + " LIMIT 1 OFFSET " + (chunkSize - 1);
+        String update = "UPDATE " + table + " SET " + SHADOW + " = UNHEX(REPLACE(" + key + ", '-', '')) "
+                + "WHERE " + key + " > ? AND " + key + " <= ? AND " + SHADOW + " IS NULL";
+        String updateRest = "UPDATE " + table + " SET " + SHADOW + " = UNHEX(REPLACE(" + key + ", '-', '')) "
+                + "WHERE " + key + " > ? AND " + SHADOW + " IS NULL";
+
+        long converted = 0;
+        String from = "";
+        while (true) {
+            try (Connection conn = connections.get()) {
+                String to;
+                try (PreparedStatement ps = conn.prepareStatement(nextBound)) {
+                    ps.setString(1, from);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        to = rs.next() ? rs.getString(1) : null;
+                    }
+                }
+                if (to == null) {
+                    // Less than a chunk left
+                    try (PreparedStatement ps = conn.prepareStatement(updateRest)) {
+                        ps.setString(1, from);
+                        converted += ps.executeUpdate();
+                    }
+                    return converted;
+                }
+                try (PreparedStatement ps = conn.prepareStatement(update)) {
+                    ps.setString(1, from);
+                    ps.setString(2, to);
+                    converted += ps.executeUpdate();
+                }
+                from = to;
+            }
+            if (pauseMs > 0) {
+                Thread.sleep(pauseMs);
+            }
+        }
+    }
+
+    private static boolean isStrictMode(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT @@SESSION.sql_mode");
+                ResultSet rs = ps.executeQuery()) {
+            String mode = rs.next() ? rs.getString(1) : null;
+            return mode != null && (mode.contains("STRICT_TRANS_TABLES") || mode.contains("STRICT_ALL_TABLES"));
+        }
+    }
+
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    private static long count(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.execute();
+        }
+    }
+}
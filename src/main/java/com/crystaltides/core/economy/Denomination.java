@@ -0,0 +1,43 @@
+package com.crystaltides.core.economy;
+
+/**
+ * Killucoin denominations, highest first (exchange table in TODO.md).
+ */
+public enum Denomination {
+    IRIDIO("Iridio", 1_000_000_000L),
+    DIAMANTE("Diamante", 100_000_000L),
+    ESMERALDA("Esmeralda", 1_000_000L),
+    ORO("Oro", 10_000L),
+    PLATA("Plata", 100L),
+    BRONCE("Bronce", 1L);
+
+    private static final Denomination[] VALUES = values();
+
+    private final String displayName;
+    private final long value;
+
+    Denomination(String displayName, long value) {
+        this.displayName = displayName;
+        this.value = value;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Currency rank: the highest denomination the balance reaches (Bronce for 0 or less).
+     */
+    public static Denomination rankOf(long balance) {
+        for (Denomination denomination : VALUES) {
+            if (balance >= denomination.value) {
+                return denomination;
+            }
+        }
+        return BRONCE;
+    }
+}
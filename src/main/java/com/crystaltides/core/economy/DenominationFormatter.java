@@ -0,0 +1,129 @@
+package com.crystaltides.core.economy;
+
+/**
+ * Killucoin formatting shared by /money, the placeholders and the web events.
+ * Integer math only; each thread reuses its own buffer.
+ */
+public final class DenominationFormatter {
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+    private static final Denomination[] DENOMINATIONS = Denomination.values();
+
+    private DenominationFormatter() {
+    }
+
+    /**
+     * Short form for scoreboards: 950, 12.3K, 4.5M, 1.2B. One decimal below 100, truncated.
+     */
+    public static String compact(long amount) {
+        StringBuilder sb = buffer();
+        appendCompact(sb, amount);
+        return sb.toString();
+    }
+
+    /**
+     * Full amount with thousands separators: 1,234,567.
+     */
+    public static String grouped(long amount) {
+        StringBuilder sb = buffer();
+        appendGrouped(sb, amount);
+        return sb.toString();
+    }
+
+    /**
+     * Amount split into denominations, skipping empty ones: "1 Esmeralda, 23 Oro, 45 Plata, 67 Bronce".
+     */
+    public static String breakdown(long amount) {
+        StringBuilder sb = buffer();
+        if (amount <= 0) {
+            return sb.append(amount).append(' ').append(Denomination.BRONCE.getDisplayName()).toString();
+        }
+        long remaining = amount;
+        for (Denomination denomination : DENOMINATIONS) {
+            long count = remaining / denomination.getValue();
+            if (count == 0)
+                continue;
+            remaining -= count * denomination.getValue();
+            if (sb.length() > 0)
+                sb.append(", ");
+            appendGrouped(sb, count);
+            sb.append(' ').append(denomination.getDisplayName());
+        }
+        return sb.toString();
+    }
+
+    public static void appendCompact(StringBuilder sb, long amount) {
+        if (amount < 0) {
+            if (amount == Long.MIN_VALUE) {
+                // -amount overflows; nobody holds this much debt
+                sb.append(amount);
+                return;
+            }
+            sb.append('-');
+            amount = -amount;
+        }
+
+        long unit;
+        char suffix;
+        if (amount >= 1_000_000_000L) {
+            unit = 1_000_000_000L;
+            suffix = 'B';
+        } else if (amount >= 1_000_000L) {
+            unit = 1_000_000L;
+            suffix = 'M';
+        } else if (amount >= 1_000L) {
+            unit = 1_000L;
+            suffix = 'K';
+        } else {
+            sb.append(amount);
+            return;
+        }
+
+        // Tenths of a unit; dividing by unit / 10 can't overflow
+        long tenths = amount / (unit / 10);
+        long whole = tenths / 10;
+        int decimal = (int) (tenths % 10);
+        appendGrouped(sb, whole);
+        if (whole < 100 && decimal != 0) {
+            sb.append('.').append(decimal);
+        }
+        sb.append(suffix);
+    }
+
+    public static void appendGrouped(StringBuilder sb, long amount) {
+        if (amount < 0) {
+            if (amount == Long.MIN_VALUE) {
+                sb.append(amount);
+                return;
+            }
+            sb.append('-');
+            amount = -amount;
+        }
+        int start = sb.length();
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0) {
+                sb.append(',');
+            }
+            sb.append((char) ('0' + amount % 10));
+            amount /= 10;
+            digits++;
+        } while (amount > 0);
+        // Digits were appended lowest first
+        reverse(sb, start, sb.length() - 1);
+    }
+
+    private static void reverse(StringBuilder sb, int from, int to) {
+        while (from < to) {
+            char tmp = sb.charAt(from);
+            sb.setCharAt(from++, sb.charAt(to));
+            sb.setCharAt(to--, tmp);
+        }
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return sb;
+    }
+}
@@ -0,0 +1,251 @@
+package com.crystaltides.core.economy;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Killucoin ranking kept in memory: an order-statistic treap ordered by balance
+ * (highest first, then name). Updates and rank lookups are O(log n); the top
+ * list is rendered once per change and served from a cached array.
+ */
+public class Leaderboard {
+
+    public record Entry(int position, String name, long balance, String compact, String line) {
+    }
+
+    private static final class Node {
+        final String name;
+        final long balance;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(String name, long balance) {
+            this.name = name;
+            this.balance = balance;
+        }
+    }
+
+    private final int topSize;
+    private final Map<String, Node> byName = new HashMap<>();
+    private Node root;
+    private volatile int version;
+
+    private volatile Entry[] top = new Entry[0];
+    private volatile int topVersion = -1;
+    // Position strings for placeholders, filled lazily
+    private final String[] positionText = new String[1024];
+
+    public Leaderboard(int topSize) {
+        this.topSize = Math.max(1, topSize);
+    }
+
+    public int getTopSize() {
+        return topSize;
+    }
+
+    /**
+     * Sets a player's balance.
+     *
+     * @return true if it changed
+     */
+    public synchronized boolean update(String name, long balance) {
+        Node existing = byName.get(name);
+        if (existing != null) {
+            if (existing.balance == balance)
+                return false;
+            root = remove(root, existing);
+        }
+        Node node = new Node(name, balance);
+        byName.put(name, node);
+        root = insert(root, node);
+        version++;
+        return true;
+    }
+
+    public synchronized boolean remove(String name) {
+        Node existing = byName.remove(name);
+        if (existing == null)
+            return false;
+        root = remove(root, existing);
+        version++;
+        return true;
+    }
+
+    /**
+     * Names currently ranked (copy).
+     */
+    public synchronized Set<String> names() {
+        return new HashSet<>(byName.keySet());
+    }
+
+    public synchronized void clear() {
+        byName.clear();
+        root = null;
+        version++;
+    }
+
+    public synchronized int size() {
+        return byName.size();
+    }
+
+    /**
+     * 1-based position of the player, or -1 if unknown.
+     */
+    public synchronized int positionOf(String name) {
+        Node key = byName.get(name);
+        if (key == null)
+            return -1;
+        int position = 0;
+        Node t = root;
+        while (t != null) {
+            int c = compare(key, t);
+            if (c < 0) {
+                t = t.left;
+            } else {
+                position += size(t.left) + 1;
+                if (c == 0)
+                    return position;
+                t = t.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The cached top list (at most topSize entries), rebuilt only after a change.
+     */
+    public Entry[] getTop() {
+        if (topVersion == version)
+            return top;
+        synchronized (this) {
+            if (topVersion != version) {
+                Entry[] entries = new Entry[Math.min(topSize, byName.size())];
+                fillTop(root, entries, new int[1]);
+                top = entries;
+                topVersion = version;
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Entry at a 1-based position of the top list, or null.
+     */
+    public Entry getTop(int position) {
+        Entry[] entries = getTop();
+        return position >= 1 && position <= entries.length ? entries[position - 1] : null;
+    }
+
+    public String positionText(int position) {
+        if (position < 1 || position > positionText.length)
+            return Integer.toString(position);
+        String text = positionText[position - 1];
+        if (text == null) {
+            text = Integer.toString(position);
+            positionText[position - 1] = text;
+        }
+        return text;
+    }
+
+    private void fillTop(Node t, Entry[] out, int[] filled) {
+        if (t == null || filled[0] >= out.length)
+            return;
+        fillTop(t.left, out, filled);
+        if (filled[0] < out.length) {
+            int position = filled[0] + 1;
+            String compact = DenominationFormatter.compact(t.balance);
+            out[filled[0]++] = new Entry(position, t.name, t.balance, compact, t.name + " §8- §e" + compact);
+        }
+        fillTop(t.right, out, filled);
+    }
+
+    // --- Treap ---
+
+    private static int compare(Node a, Node b) {
+        if (a.balance != b.balance)
+            return a.balance > b.balance ? -1 : 1; // Richest first
+        return a.name.compareTo(b.name);
+    }
+
+    private static int size(Node t) {
+        return t == null ? 0 : t.size;
+    }
+
+    private static void resize(Node t) {
+        t.size = 1 + size(t.left) + size(t.right);
+    }
+
+    private static Node insert(Node t, Node node) {
+        if (t == null)
+            return node;
+        if (node.priority > t.priority) {
+            split(t, node);
+            resize(node);
+            return node;
+        }
+        if (compare(node, t) < 0) {
+            t.left = insert(t.left, node);
+        } else {
+            t.right = insert(t.right, node);
+        }
+        resize(t);
+        return t;
+    }
+
+    /**
+     * Splits t around the key, hanging the halves under key.left / key.right.
+     */
+    private static void split(Node t, Node key) {
+        if (t == null) {
+            key.left = null;
+            key.right = null;
+            return;
+        }
+        if (compare(t, key) < 0) {
+            split(t.right, key);
+            t.right = key.left;
+            resize(t);
+            key.left = t;
+        } else {
+            split(t.left, key);
+            t.left = key.right;
+            resize(t);
+            key.right = t;
+        }
+    }
+
+    private static Node remove(Node t, Node key) {
+        if (t == null)
+            return null;
+        int c = compare(key, t);
+        if (c == 0)
+            return merge(t.left, t.right);
+        if (c < 0) {
+            t.left = remove(t.left, key);
+        } else {
+            t.right = remove(t.right, key);
+        }
+        resize(t);
+        return t;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            resize(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        resize(b);
+        return b;
+    }
+}
@@ -0,0 +1,47 @@
+package com.crystaltides.core.gacha;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable CustomModelData -> tier lookup backed by a sorted int[].
+ * Lookups are a binary search over primitives, with no boxing.
+ */
+public final class TierTable {
+
+    public static final TierTable EMPTY = new TierTable(new int[0], new String[0]);
+
+    private final int[] modelData;
+    private final String[] tiers;
+
+    private TierTable(int[] modelData, String[] tiers) {
+        this.modelData = modelData;
+        this.tiers = tiers;
+    }
+
+    public static TierTable of(Map<Integer, String> mappings) {
+        TreeMap<Integer, String> sorted = new TreeMap<>(mappings);
+        int[] keys = new int[sorted.size()];
+        String[] values = new String[sorted.size()];
+        int i = 0;
+        for (Map.Entry<Integer, String> entry : sorted.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue().intern();
+            i++;
+        }
+        return new TierTable(keys, values);
+    }
+
+    /**
+     * @return the tier for this CustomModelData, or null if it isn't a gacha item
+     */
+    public String tierFor(int customModelData) {
+        int index = Arrays.binarySearch(modelData, customModelData);
+        return index >= 0 ? tiers[index] : null;
+    }
+
+    public int size() {
+        return modelData.length;
+    }
+}
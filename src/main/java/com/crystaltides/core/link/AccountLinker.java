@@ -0,0 +1,133 @@
+package com.crystaltides.core.link;
+
+import com.crystaltides.core.database.UuidCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.UUID;
+
+/**
+ * Consumes a link code and links the player in a single transaction.
+ * <p>
+ * The code is read with FOR UPDATE inside the transaction, so a second
+ * player racing for it waits and then finds it gone. Round trips: begin
+ * (SET autocommit=0), lookup, consume code, upsert, and the commit done by
+ * turning autocommit back on; releasing an id held by another player adds
+ * one more. Wrong or expired codes stop after the lookup and a rollback.
+ * Any failure rolls everything back, so a code is never spent without a link.
+ */
+public final class AccountLinker {
+
+    public enum Outcome {
+        LINKED, INVALID_CODE, EXPIRED_CODE, UNSUPPORTED_SOURCE
+    }
+
+    public record Result(Outcome outcome, String source, String sourceId) {
+    }
+
+    // Code plus whoever currently holds its external id, in one read; only the code row is locked
+    private static final String LOOKUP = "SELECT ul.source, ul.source_id, ul.expires_at, CASE ul.source "
+            + "WHEN 'discord' THEN (SELECT la.minecraft_uuid FROM linked_accounts la WHERE la.discord_id = ul.source_id) "
+            + "WHEN 'web' THEN (SELECT la.minecraft_uuid FROM linked_accounts la WHERE la.web_user_id = ul.source_id) "
+            + "END AS holder FROM universal_links ul WHERE ul.code = ? FOR UPDATE";
+
+    // Whoever else holds the external id lets it go (UNIQUE columns)
+    private static final String RELEASE_DISCORD = "UPDATE linked_accounts SET discord_id = NULL, discord_tag = NULL "
+            + "WHERE discord_id = ? AND minecraft_uuid <> ?";
+    private static final String RELEASE_WEB = "UPDATE linked_accounts SET web_user_id = NULL "
+            + "WHERE web_user_id = ? AND minecraft_uuid <> ?";
+
+    // The tag belongs to the previous Discord account, drop it when the id changes
+    private static final String UPSERT_DISCORD = "INSERT INTO linked_accounts (minecraft_uuid, minecraft_name, discord_id) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE minecraft_name = VALUES(minecraft_name), "
+            + "discord_tag = CASE WHEN discord_id = VALUES(discord_id) THEN discord_tag ELSE NULL END, "
+            + "discord_id = VALUES(discord_id)";
+    private static final String UPSERT_WEB = "INSERT INTO linked_accounts (minecraft_uuid, minecraft_name, web_user_id) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE minecraft_name = VALUES(minecraft_name), "
+            + "web_user_id = VALUES(web_user_id)";
+
+    private AccountLinker() {
+    }
+
+    /**
+     * @param conn  an autocommit connection from the pool
+     * @param codec storage of linked_accounts.minecraft_uuid
+     */
+    public static Result link(Connection conn, UuidCodec codec, UUID uuid, String playerName, String code, long now)
+            throws SQLException {
+        String normalized = code.toUpperCase();
+        boolean linked = false;
+        conn.setAutoCommit(false);
+        try {
+            String source;
+            String sourceId;
+            UUID holder;
+            try (PreparedStatement lookup = conn.prepareStatement(LOOKUP)) {
+                lookup.setString(1, normalized);
+                try (ResultSet rs = lookup.executeQuery()) {
+                    if (!rs.next()) {
+                        return new Result(Outcome.INVALID_CODE, null, null);
+                    }
+                    if (now > rs.getLong("expires_at")) {
+                        return new Result(Outcome.EXPIRED_CODE, null, null);
+                    }
+                    source = rs.getString("source");
+                    sourceId = rs.getString("source_id");
+                    holder = codec.read(rs, "holder");
+                }
+            }
+
+            boolean discord = source.equalsIgnoreCase("discord");
+            if (!discord && !source.equalsIgnoreCase("web")) {
+                return new Result(Outcome.UNSUPPORTED_SOURCE, source, sourceId);
+            }
+
+            // Locked by the lookup, so no other transaction can have consumed it meanwhile
+            try (PreparedStatement consume = conn.prepareStatement("DELETE FROM universal_links WHERE code = ?")) {
+                consume.setString(1, normalized);
+                consume.executeUpdate();
+            }
+
+            if (holder != null && !holder.equals(uuid)) {
+                release(conn, codec, discord, sourceId, uuid);
+            }
+            try {
+                upsert(conn, codec, discord, uuid, playerName, sourceId);
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // Someone took the id after the lookup: free it and try again
+                release(conn, codec, discord, sourceId, uuid);
+                upsert(conn, codec, discord, uuid, playerName, sourceId);
+            }
+            linked = true;
+            return new Result(Outcome.LINKED, source, sourceId);
+        } finally {
+            if (!linked) {
+                conn.rollback();
+            }
+            // Turning autocommit back on commits the transaction (its own round trip, counted above)
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void release(Connection conn, UuidCodec codec, boolean discord, String sourceId, UUID uuid)
+            throws SQLException {
+        try (PreparedStatement release = conn.prepareStatement(discord ? RELEASE_DISCORD : RELEASE_WEB)) {
+            release.setString(1, sourceId);
+            codec.bind(release, 2, uuid);
+            release.executeUpdate();
+        }
+    }
+
+    private static void upsert(Connection conn, UuidCodec codec, boolean discord, UUID uuid, String playerName,
+            String sourceId) throws SQLException {
+        try (PreparedStatement upsert = conn.prepareStatement(discord ? UPSERT_DISCORD : UPSERT_WEB)) {
+            codec.bind(upsert, 1, uuid);
+            upsert.setString(2, playerName);
+            upsert.setString(3, sourceId);
+            upsert.executeUpdate();
+        }
+    }
+}
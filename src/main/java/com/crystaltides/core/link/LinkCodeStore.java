@@ -0,0 +1,119 @@
+package com.crystaltides.core.link;
+
+import java.security.SecureRandom;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Link codes issued by this server (/link with no arguments), kept in memory
+ * until they expire. universal_links stays the source of truth for Discord and
+ * the web; this store only spares the database for lookups about our own codes.
+ * <p>
+ * Expiry runs off a deadline heap: {@link #expire(long)} pops only what is due.
+ */
+public class LinkCodeStore {
+
+    public static final long TTL_MS = 15 * 60 * 1000L;
+    public static final int CODE_LENGTH = 6;
+    // No 0/O/1/I, they get mistyped
+    private static final char[] ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    // universal_links.code is VARCHAR(10)
+    private static final int MAX_CODE_LENGTH = 10;
+
+    public record LinkCode(String code, UUID player, long expiresAt) {
+        public boolean isExpired(long now) {
+            return now > expiresAt;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, LinkCode> byCode = new ConcurrentHashMap<>();
+    private final Map<UUID, LinkCode> byPlayer = new ConcurrentHashMap<>();
+    // Guarded by this; may hold stale entries for replaced codes, skipped when popped
+    private final PriorityQueue<LinkCode> deadlines = new PriorityQueue<>(Comparator.comparingLong(LinkCode::expiresAt));
+
+    /**
+     * The player's still valid code, or null.
+     */
+    public LinkCode active(UUID player, long now) {
+        LinkCode code = byPlayer.get(player);
+        return code == null || code.isExpired(now) ? null : code;
+    }
+
+    /**
+     * A code issued by this server, or null if unknown or expired.
+     */
+    public LinkCode get(String code, long now) {
+        LinkCode linkCode = byCode.get(code);
+        return linkCode == null || linkCode.isExpired(now) ? null : linkCode;
+    }
+
+    /**
+     * A fresh random code that is not in use here. The database may still
+     * reject it if Discord/web issued the same one.
+     */
+    public String newCode() {
+        char[] chars = new char[CODE_LENGTH];
+        String code;
+        do {
+            for (int i = 0; i < CODE_LENGTH; i++) {
+                chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            code = new String(chars);
+        } while (byCode.containsKey(code));
+        return code;
+    }
+
+    public synchronized void put(LinkCode code) {
+        LinkCode previous = byPlayer.put(code.player(), code);
+        if (previous != null && !previous.code().equals(code.code())) {
+            byCode.remove(previous.code(), previous);
+        }
+        byCode.put(code.code(), code);
+        deadlines.add(code);
+    }
+
+    public synchronized void remove(LinkCode code) {
+        byCode.remove(code.code(), code);
+        byPlayer.remove(code.player(), code);
+    }
+
+    /**
+     * Drops every code past its deadline.
+     *
+     * @return number of codes removed
+     */
+    public synchronized int expire(long now) {
+        int removed = 0;
+        LinkCode head;
+        while ((head = deadlines.peek()) != null && head.isExpired(now)) {
+            deadlines.poll();
+            // Superseded entries (refreshed or replaced codes) are already gone from the maps
+            if (byCode.remove(head.code(), head)) {
+                byPlayer.remove(head.player(), head);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return byCode.size();
+    }
+
+    /**
+     * Cheap syntax check before anything reaches the database.
+     */
+    public static boolean isWellFormed(String code) {
+        if (code.isEmpty() || code.length() > MAX_CODE_LENGTH)
+            return false;
+        for (int i = 0; i < code.length(); i++) {
+            if (!Character.isLetterOrDigit(code.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+}
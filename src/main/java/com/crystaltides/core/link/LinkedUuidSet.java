@@ -0,0 +1,156 @@
+package com.crystaltides.core.link;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * UUIDs with a linked_accounts row, kept as pairs of longs in an
+ * open-addressing table (16 bytes per player, no UUID objects).
+ * <p>
+ * Errs on the side of "maybe linked": until the first load finishes every
+ * player may be linked, and players with a pending link code are kept in it.
+ * A false positive costs one query. Links made on another server sharing the
+ * database only show up at the next reload, so a "not linked" answer only
+ * moves a lookup off the login path; it is still confirmed after the join.
+ */
+public class LinkedUuidSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] table = new long[2 * 64];
+    private int size;
+    private boolean loaded;
+    // Adds seen while a reload is streaming, replayed onto the new table
+    private List<UUID> addedDuringReload;
+
+    /**
+     * False only if the player is known to have no link.
+     */
+    public synchronized boolean mightBeLinked(UUID uuid) {
+        return !loaded || indexOf(table, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0;
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void add(UUID uuid) {
+        if (addedDuringReload != null) {
+            addedDuringReload.add(uuid);
+        }
+        insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public synchronized void remove(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int slot = indexOf(table, msb, lsb);
+        if (slot < 0)
+            return;
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int mask = table.length / 2 - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (!isFree(table, next)) {
+            int home = slot(table[2 * next], table[2 * next + 1], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[2 * hole] = table[2 * next];
+                table[2 * hole + 1] = table[2 * next + 1];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[2 * hole] = EMPTY;
+        table[2 * hole + 1] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Marks the start of a full reload; adds from now on survive {@link #replace}.
+     */
+    public synchronized void beginReload() {
+        addedDuringReload = new ArrayList<>();
+    }
+
+    /**
+     * Swaps in a freshly loaded set, keeping whatever was added since {@link #beginReload()}.
+     */
+    public synchronized void replace(LinkedUuidSet fresh) {
+        List<UUID> added = addedDuringReload;
+        addedDuringReload = null;
+        this.table = fresh.table;
+        this.size = fresh.size;
+        if (added != null) {
+            for (UUID uuid : added) {
+                insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            }
+        }
+        this.loaded = true;
+    }
+
+    /**
+     * Abandons a reload that failed; the current contents stay as they are.
+     */
+    public synchronized void cancelReload() {
+        addedDuringReload = null;
+    }
+
+    private void insert(long msb, long lsb) {
+        if (indexOf(table, msb, lsb) >= 0)
+            return;
+        if ((size + 1) * 4 > (table.length / 2) * 3) {
+            grow();
+        }
+        int mask = table.length / 2 - 1;
+        int i = slot(msb, lsb, mask);
+        while (!isFree(table, i)) {
+            i = (i + 1) & mask;
+        }
+        table[2 * i] = msb;
+        table[2 * i + 1] = lsb;
+        size++;
+    }
+
+    private void grow() {
+        long[] old = table;
+        long[] grown = new long[old.length * 2];
+        int mask = grown.length / 2 - 1;
+        for (int j = 0; j < old.length / 2; j++) {
+            if (isFree(old, j))
+                continue;
+            int i = slot(old[2 * j], old[2 * j + 1], mask);
+            while (!isFree(grown, i)) {
+                i = (i + 1) & mask;
+            }
+            grown[2 * i] = old[2 * j];
+            grown[2 * i + 1] = old[2 * j + 1];
+        }
+        table = grown;
+    }
+
+    private static int indexOf(long[] table, long msb, long lsb) {
+        int mask = table.length / 2 - 1;
+        int i = slot(msb, lsb, mask);
+        while (!isFree(table, i)) {
+            if (table[2 * i] == msb && table[2 * i + 1] == lsb)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // The nil UUID (all zeros) marks a free slot; no player has it
+    private static boolean isFree(long[] table, int i) {
+        return table[2 * i] == EMPTY && table[2 * i + 1] == EMPTY;
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+}
@@ -2,38 +2,127 @@ package com.crystaltides.core.managers;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.api.ModuleHandle;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ModuleManager {
 
     private final CrystalCore plugin;
-    private final Map<String, CrystalModule> modules = new HashMap<>();
+    private final Map<String, CrystalModule> modules = new LinkedHashMap<>();
+    // Exact classes plus any supertype that was asked for, resolved on first use
+    private final Map<Class<?>, CrystalModule> byType = new ConcurrentHashMap<>();
+    private volatile int generation;
 
     public ModuleManager(CrystalCore plugin) {
         this.plugin = plugin;
     }
 
     public void registerModule(CrystalModule module) {
-        modules.put(module.getName(), module);
+        CrystalModule previous = modules.put(module.getName(), module);
+        if (previous != null) {
+            byType.clear();
+            modules.values().forEach(m -> byType.put(m.getClass(), m));
+        } else {
+            byType.put(module.getClass(), module);
+        }
+        generation++;
+    }
+
+    /**
+     * Bumped on every registration so {@link ModuleHandle}s know to resolve again.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Handle for hot paths: keep it in a field instead of calling getModule per request.
+     */
+    public <T extends CrystalModule> ModuleHandle<T> handle(Class<T> moduleClass) {
+        return new ModuleHandle<>(this, moduleClass);
     }
 
+    /**
+     * Enables modules following their declared dependencies. Each module's
+     * {@link CrystalModule#prepare()} runs on a startup thread, in parallel with
+     * modules that don't depend on it; its onEnable then runs on the calling
+     * (main) thread, where the Bukkit API is safe to use.
+     */
     public void enableModules() {
-        for (CrystalModule module : modules.values()) {
-            // Check config if module is enabled (defaulting to true for core modules)
-            if (plugin.getConfig().getBoolean("modules." + module.getName(), true)) {
-                try {
-                    module.onEnable();
-                } catch (Exception e) {
-                    plugin.getLogger().severe("Failed to enable module " + module.getName() + ": " + e.getMessage());
-                    e.printStackTrace();
+        long start = System.nanoTime();
+        List<CrystalModule> order = sortByDependencies();
+
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, order.size()), r -> {
+            Thread thread = new Thread(r, "CrystalCore-Startup-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Runnable> mainThreadTasks = new LinkedBlockingQueue<>();
+
+        Map<CrystalModule, CompletableFuture<Void>> started = new HashMap<>();
+        for (CrystalModule module : order) {
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            for (Class<? extends CrystalModule> dependency : allDependencies(module)) {
+                CrystalModule required = getModule(dependency);
+                if (required != null && started.containsKey(required)) {
+                    dependencies.add(started.get(required));
                 }
             }
+
+            CompletableFuture<Void> ready = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]));
+            started.put(module, ready
+                    .thenApplyAsync(ignored -> prepareModule(module), executor)
+                    .thenAcceptAsync(prepareNanos -> {
+                        if (prepareNanos != null) {
+                            enableModule(module, prepareNanos);
+                        }
+                    }, mainThreadTasks::add));
+        }
+
+        // Run the onEnable calls here while the rest prepares in the background
+        CompletableFuture<Void> all = CompletableFuture.allOf(started.values().toArray(new CompletableFuture[0]));
+        try {
+            while (!all.isDone()) {
+                Runnable task = mainThreadTasks.poll(10, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                }
+            }
+            Runnable task;
+            while ((task = mainThreadTasks.poll()) != null) {
+                task.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
         }
+
+        plugin.getLogger().info("[Startup] Modules ready in " + (System.nanoTime() - start) / 1_000_000 + "ms.");
     }
 
     public void disableModules() {
-        for (CrystalModule module : modules.values()) {
+        // Reverse startup order: dependents go down before what they use
+        List<CrystalModule> order = sortByDependencies();
+        Collections.reverse(order);
+        for (CrystalModule module : order) {
             if (module.isEnabled()) {
                 try {
                     module.onDisable();
@@ -44,13 +133,101 @@ public class ModuleManager {
         }
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends CrystalModule> T getModule(Class<T> moduleClass) {
+        CrystalModule module = byType.get(moduleClass);
+        if (module == null) {
+            module = resolve(moduleClass);
+        }
+        return moduleClass.cast(module);
+    }
+
+    private CrystalModule resolve(Class<?> moduleClass) {
+        // Interfaces / base classes: scan once, then cache
         for (CrystalModule module : modules.values()) {
             if (moduleClass.isInstance(module)) {
-                return (T) module;
+                byType.putIfAbsent(moduleClass, module);
+                return module;
             }
         }
         return null;
     }
+
+    /**
+     * @return how long prepare took, or null if the module is not to be enabled
+     */
+    private Long prepareModule(CrystalModule module) {
+        // Check config if module is enabled (defaulting to true for core modules)
+        if (!plugin.getConfig().getBoolean("modules." + module.getName(), true)) {
+            return null;
+        }
+
+        for (Class<? extends CrystalModule> dependency : module.getDependencies()) {
+            CrystalModule required = getModule(dependency);
+            if (required == null || !required.isEnabled()) {
+                plugin.getLogger().severe("Not enabling " + module.getName() + ": required module "
+                        + dependency.getSimpleName() + " is not enabled.");
+                return null;
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            module.prepare();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to prepare module " + module.getName() + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void enableModule(CrystalModule module, long prepareNanos) {
+        long start = System.nanoTime();
+        try {
+            module.onEnable();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to enable module " + module.getName() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        plugin.getLogger().info("[Startup] " + module.getName() + " took " + (System.nanoTime() - start) / 1_000_000
+                + "ms (+" + prepareNanos / 1_000_000 + "ms prepare in the background).");
+    }
+
+    private List<Class<? extends CrystalModule>> allDependencies(CrystalModule module) {
+        List<Class<? extends CrystalModule>> all = new ArrayList<>(module.getDependencies());
+        all.addAll(module.getSoftDependencies());
+        return all;
+    }
+
+    /**
+     * Topological order (dependencies first), stable with registration order.
+     */
+    private List<CrystalModule> sortByDependencies() {
+        List<CrystalModule> order = new ArrayList<>();
+        Set<CrystalModule> visited = new HashSet<>();
+        Set<CrystalModule> visiting = new HashSet<>();
+        for (CrystalModule module : modules.values()) {
+            visit(module, visited, visiting, order);
+        }
+        return order;
+    }
+
+    private void visit(CrystalModule module, Set<CrystalModule> visited, Set<CrystalModule> visiting,
+            List<CrystalModule> order) {
+        if (visited.contains(module))
+            return;
+        if (!visiting.add(module)) {
+            plugin.getLogger().severe("Circular module dependency involving " + module.getName() + ".");
+            return;
+        }
+        for (Class<? extends CrystalModule> dependency : allDependencies(module)) {
+            CrystalModule required = getModule(dependency);
+            if (required != null) {
+                visit(required, visited, visiting, order);
+            }
+        }
+        visiting.remove(module);
+        visited.add(module);
+        order.add(module);
+    }
 }
@@ -0,0 +1,45 @@
+package com.crystaltides.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic event counter. {@link #getRate()} is the per-second rate over the
+ * last registry tick.
+ */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+    private long lastTotal;
+    private volatile double rate;
+
+    Counter() {
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    void tick(double seconds) {
+        long total = count.sum();
+        rate = (total - lastTotal) / seconds;
+        lastTotal = total;
+    }
+
+    void reset() {
+        count.reset();
+        lastTotal = 0;
+        rate = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.crystaltides.core.metrics;
+
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Plugin-wide metrics shared by all modules.
+ * <p>
+ * Look metrics up once (e.g. in onEnable) and keep the reference: recording on
+ * a held Counter/Histogram is allocation-free, the name lookup is not meant for
+ * hot paths.
+ */
+public class MetricsRegistry {
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private long lastTick = System.nanoTime();
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    /**
+     * Registers (or replaces) a gauge; the supplier is read when stats are requested.
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Updates counter rates. Called once per second by the plugin.
+     */
+    public synchronized void tick() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastTick) / 1e9);
+        lastTick = now;
+        for (Counter counter : counters.values()) {
+            counter.tick(seconds);
+        }
+    }
+
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Human readable lines for /crystalcore stats, sorted by name.
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        new TreeMap<>(histograms).forEach((name, h) -> lines.add(String.format(
+                "§e%s §7n=%d p50=%.2fms p99=%.2fms max=%.2fms", name, h.getCount(),
+                toMillis(h.getPercentile(0.50)), toMillis(h.getPercentile(0.99)), toMillis(h.getMax()))));
+        new TreeMap<>(counters).forEach((name, c) -> lines.add(String.format(
+                "§e%s §7total=%d rate=%.1f/s", name, c.getCount(), c.getRate())));
+        new TreeMap<>(gauges).forEach((name, g) -> lines.add(String.format(
+                "§e%s §7value=%d", name, g.getAsLong())));
+        return lines;
+    }
+
+    /**
+     * Snapshot for the WebSocket "stats" operation.
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+
+        JsonObject histogramJson = new JsonObject();
+        histograms.forEach((name, h) -> {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("count", h.getCount());
+            entry.addProperty("p50_ms", toMillis(h.getPercentile(0.50)));
+            entry.addProperty("p99_ms", toMillis(h.getPercentile(0.99)));
+            entry.addProperty("max_ms", toMillis(h.getMax()));
+            histogramJson.add(name, entry);
+        });
+        json.add("histograms", histogramJson);
+
+        JsonObject counterJson = new JsonObject();
+        counters.forEach((name, c) -> {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("total", c.getCount());
+            entry.addProperty("rate", c.getRate());
+            counterJson.add(name, entry);
+        });
+        json.add("counters", counterJson);
+
+        JsonObject gaugeJson = new JsonObject();
+        gauges.forEach((name, g) -> gaugeJson.addProperty(name, g.getAsLong()));
+        json.add("gauges", gaugeJson);
+        return json;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -2,43 +2,116 @@ package com.crystaltides.core.modules;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.database.IoExecutor;
+import com.crystaltides.core.database.SqlUtil;
+import com.crystaltides.core.economy.Denomination;
+import com.crystaltides.core.economy.DenominationFormatter;
+import com.crystaltides.core.economy.Leaderboard;
+import com.crystaltides.core.metrics.Histogram;
 import com.crystaltides.core.profile.CrystalProfile;
+import com.google.gson.JsonObject;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteErrorCode;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BancoModule extends CrystalModule {
 
+    public enum AccessMode {
+        // Several parallel readers opened read-only; CrystalCore never writes to Banco's file
+        READ_ONLY,
+        // Single read/write connection (pre-1.5.1 behaviour)
+        SHARED
+    }
+
+    private static final int BUSY_RETRIES = 3;
+
     private HikariDataSource sqliteDataSource;
     private final File databaseFile;
+    private final File walFile;
+    private final ModuleHandle<ProfileModule> profiles;
+    private final ModuleHandle<WebBridgeModule> webBridge;
+
+    // Change detection for the background refresher
+    private BukkitTask refreshTask;
+    private long lastFingerprint;
+    // Bumped whenever Banco's file changed; cached offline balances older than this are re-read
+    private volatile long dataVersion;
+    private volatile IoExecutor.Lane ioLane;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    // Killucoins ranking over every Banco account
+    private volatile Leaderboard leaderboard = new Leaderboard(10);
+    private long rescanIntervalMs;
+    private volatile long lastRescan;
+    private int busyTimeoutMs;
+    private Histogram syncTimer;
+    private Histogram bulkSyncTimer;
 
     public BancoModule(CrystalCore plugin) {
         super(plugin, "BancoBridge");
+        this.profiles = plugin.getModuleManager().handle(ProfileModule.class);
+        this.webBridge = plugin.getModuleManager().handle(WebBridgeModule.class);
         // Path to plugins/banco/accounts.db
         this.databaseFile = new File(plugin.getDataFolder().getParentFile(), "banco/accounts.db");
+        this.walFile = new File(databaseFile.getPath() + "-wal");
     }
 
     @Override
-    public void onEnable() {
+    public void prepare() {
         if (!databaseFile.exists()) {
             plugin.getLogger().warning("Banco database not found at " + databaseFile.getAbsolutePath());
             plugin.getLogger().warning("BancoBridge will be disabled.");
             return;
         }
+        setupSQLite();
+    }
+
+    @Override
+    protected IoExecutor.Lane io() {
+        IoExecutor.Lane lane = ioLane;
+        return lane != null ? lane : super.io();
+    }
 
-        if (setupSQLite()) {
+    @Override
+    public void onEnable() {
+        this.syncTimer = metrics().histogram("banco.sync");
+        this.bulkSyncTimer = metrics().histogram("banco.sync_bulk");
+        if (sqliteDataSource != null && !sqliteDataSource.isClosed()) {
+            // One task per SQLite connection, never waiting on MySQL permits
+            this.ioLane = plugin.getIoExecutor().lane(getName(), sqliteDataSource.getMaximumPoolSize());
+            this.leaderboard = new Leaderboard(Math.max(1, plugin.getConfig().getInt("banco.leaderboard-size", 10)));
+            this.rescanIntervalMs = Math.max(30L, plugin.getConfig().getLong("banco.leaderboard-rescan-seconds", 300L))
+                    * 1000L;
             super.onEnable();
-            // Start sync task (optional, if we want periodic updates besides login)
+            startRefreshTask();
+            io().run(this::rescanLeaderboard);
         }
     }
 
     @Override
     public void onDisable() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
         if (sqliteDataSource != null && !sqliteDataSource.isClosed()) {
             sqliteDataSource.close();
         }
@@ -46,14 +119,16 @@ public class BancoModule extends CrystalModule {
     }
 
     private boolean setupSQLite() {
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
-        config.setPoolName("CrystalCore-BancoPool");
-        config.setMaximumPoolSize(1); // SQLite handles 1 concurrent writer preferably
+        AccessMode mode = "shared".equalsIgnoreCase(plugin.getConfig().getString("banco.access-mode", "read-only"))
+                ? AccessMode.SHARED
+                : AccessMode.READ_ONLY;
+        int readers = Math.max(1, plugin.getConfig().getInt("banco.readers", 4));
+        this.busyTimeoutMs = Math.max(0, plugin.getConfig().getInt("banco.busy-timeout-ms", 250));
 
         try {
-            sqliteDataSource = new HikariDataSource(config);
-            plugin.getLogger().info("Connected to Banco SQLite database.");
+            sqliteDataSource = createDataSource(databaseFile, mode, readers, busyTimeoutMs);
+            plugin.getLogger().info("Connected to Banco SQLite database (" + mode + ", "
+                    + sqliteDataSource.getMaximumPoolSize() + " connections).");
             return true;
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to connect to Banco SQLite: " + e.getMessage());
@@ -61,31 +136,255 @@ public class BancoModule extends CrystalModule {
         }
     }
 
+    public static HikariDataSource createDataSource(File databaseFile, AccessMode mode, int readers, int busyTimeoutMs) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        config.setPoolName("CrystalCore-BancoPool");
+        // Login lookups must not sit behind Hikari's 30s default
+        config.setConnectionTimeout(1000);
+
+        if (mode == AccessMode.SHARED) {
+            config.setMaximumPoolSize(1); // SQLite handles 1 concurrent writer preferably
+            return new HikariDataSource(config);
+        }
+
+        SQLiteConfig sqlite = new SQLiteConfig();
+        sqlite.setReadOnly(true); // SQLITE_OPEN_READONLY, never takes a write lock
+        sqlite.setBusyTimeout(busyTimeoutMs);
+        sqlite.setCacheSize(-8192); // 8 MiB page cache per reader
+        sqlite.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(64L * 1024 * 1024));
+        // journal_mode is left to Banco: in WAL mode readers never block its writer
+        Properties properties = sqlite.toProperties();
+
+        config.setDataSourceProperties(properties);
+        // Must match the open flag: sqlite-jdbc rejects Hikari's default setReadOnly(false)
+        config.setReadOnly(true);
+        config.setConnectionInitSql("PRAGMA query_only = true");
+        config.setMaximumPoolSize(readers);
+        config.setMinimumIdle(1);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Runs a query, retrying a few times if Banco holds a lock longer than busy-timeout-ms.
+     * Keeps the worst case short so async login threads are never parked for long.
+     */
+    private <T> T withBusyRetry(SqliteCall<T> call) throws SQLException {
+        for (int attempt = 1;; attempt++) {
+            try (Connection conn = sqliteDataSource.getConnection()) {
+                return call.apply(conn);
+            } catch (SQLException e) {
+                boolean busy = e.getErrorCode() == SQLiteErrorCode.SQLITE_BUSY.code
+                        || e.getErrorCode() == SQLiteErrorCode.SQLITE_LOCKED.code;
+                if (!busy || attempt >= BUSY_RETRIES) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(10L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqliteCall<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    private void startRefreshTask() {
+        long interval = Math.max(1L, plugin.getConfig().getLong("banco.refresh-interval-ticks", 40L));
+        // Balances are already fresh for everyone loaded at this point
+        this.lastFingerprint = fileFingerprint();
+        this.refreshTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            // Skip this round if the previous check is still running
+            if (refreshing.compareAndSet(false, true)) {
+                io().run(this::refreshIfChanged).whenComplete((ignored, error) -> refreshing.set(false));
+            }
+        }, interval, interval);
+    }
+
+    /**
+     * Re-reads online balances only when Banco wrote to its database.
+     * The check is two stat() calls; SQLite is not touched when nothing changed.
+     */
+    private void refreshIfChanged() {
+        long fingerprint = fileFingerprint();
+        if (fingerprint == lastFingerprint)
+            return;
+        dataVersion++;
+
+        ProfileModule profileModule = profiles.get();
+        // Only a successful sync consumes the change; after a failure (busy writer) the next tick retries
+        if (profileModule == null || syncProfiles(profileModule.getProfiles())) {
+            lastFingerprint = fingerprint;
+        }
+        // Offline players' balances only move through Banco itself: catch up now and then
+        if (System.currentTimeMillis() - lastRescan >= rescanIntervalMs) {
+            rescanLeaderboard();
+        }
+    }
+
+    private long fileFingerprint() {
+        // Commits append to the WAL (size/mtime) until a checkpoint rewrites the main file
+        long hash = databaseFile.lastModified();
+        hash = 31 * hash + databaseFile.length();
+        hash = 31 * hash + walFile.lastModified();
+        hash = 31 * hash + walFile.length();
+        return hash;
+    }
+
     public void syncProfile(CrystalProfile profile) {
         if (!isEnabled())
             return;
 
         if (Bukkit.isPrimaryThread()) {
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> performSync(profile));
+            io().run(() -> performSync(profile));
         } else {
             performSync(profile);
         }
     }
 
+    /**
+     * Reads the balance on the I/O executor, so callers can wait on it alongside other lookups.
+     */
+    public CompletableFuture<Void> syncProfileAsync(CrystalProfile profile) {
+        if (!isEnabled())
+            return CompletableFuture.completedFuture(null);
+        return io().run(() -> performSync(profile));
+    }
+
     private void performSync(CrystalProfile profile) {
-        try (Connection conn = sqliteDataSource.getConnection();
-                PreparedStatement ps = conn.prepareStatement("SELECT balance FROM accounts WHERE player_name = ?")) {
+        long start = System.nanoTime();
+        try {
+            withBusyRetry(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT balance FROM accounts WHERE player_name = ?")) {
+                    ps.setString(1, profile.getPlayerName());
 
-            ps.setString(1, profile.getPlayerName());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            applyBalance(profile, rs.getLong("balance"));
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error syncing balance for " + profile.getPlayerName() + ": " + e.getMessage());
+        } finally {
+            syncTimer.recordSince(start);
+        }
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    long balance = rs.getLong("balance");
-                    profile.setKillucoins(balance);
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Reads every account once and applies only the differences to the leaderboard.
+     */
+    private void rescanLeaderboard() {
+        long start = System.nanoTime();
+        Leaderboard board = leaderboard;
+        Set<String> stale = board.names();
+        try {
+            int changed = withBusyRetry(conn -> {
+                int updates = 0;
+                try (PreparedStatement ps = conn.prepareStatement("SELECT player_name, balance FROM accounts");
+                        ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String name = rs.getString("player_name");
+                        stale.remove(name);
+                        if (board.update(name, rs.getLong("balance")))
+                            updates++;
+                    }
                 }
+                return updates;
+            });
+            for (String name : stale) {
+                board.remove(name);
+            }
+            lastRescan = System.currentTimeMillis();
+            if (changed > 0 || !stale.isEmpty()) {
+                plugin.getLogger().fine("Leaderboard rescan: " + changed + " changed, " + stale.size() + " removed in "
+                        + (System.nanoTime() - start) / 1_000_000 + "ms.");
             }
         } catch (SQLException e) {
-            plugin.getLogger().warning("Error syncing balance for " + profile.getPlayerName() + ": " + e.getMessage());
+            plugin.getLogger().warning("Error loading the Killucoins leaderboard: " + e.getMessage());
+        }
+    }
+
+    private void applyBalance(CrystalProfile profile, long balance) {
+        leaderboard.update(profile.getPlayerName(), balance);
+        if (profile.getKillucoins() == balance)
+            return;
+        profile.setKillucoins(balance);
+
+        WebBridgeModule webBridge = this.webBridge.getIfEnabled();
+        if (webBridge != null) {
+            // Same strings as /money and the placeholders
+            JsonObject event = new JsonObject();
+            event.addProperty("uuid", profile.getUuid().toString());
+            event.addProperty("name", profile.getPlayerName());
+            event.addProperty("balance", balance);
+            event.addProperty("formatted", DenominationFormatter.grouped(balance));
+            event.addProperty("compact", DenominationFormatter.compact(balance));
+            event.addProperty("rank", Denomination.rankOf(balance).getDisplayName());
+            webBridge.publishEvent("balance", "balance:" + profile.getUuid(), event);
+        }
+    }
+
+    /**
+     * Loads balances for many profiles with one IN (...) query per chunk.
+     * Must be called off the main thread.
+     *
+     * @return false if any chunk failed to load
+     */
+    public boolean syncProfiles(Collection<CrystalProfile> profiles) {
+        if (!isEnabled() || profiles.isEmpty())
+            return true;
+
+        boolean synced = true;
+        long start = System.nanoTime();
+        List<CrystalProfile> pending = new ArrayList<>(profiles);
+        for (int from = 0; from < pending.size(); from += SqlUtil.IN_CHUNK_SIZE) {
+            List<CrystalProfile> chunk = pending.subList(from, Math.min(pending.size(), from + SqlUtil.IN_CHUNK_SIZE));
+            Map<String, CrystalProfile> byName = new HashMap<>();
+            for (CrystalProfile profile : chunk) {
+                byName.put(profile.getPlayerName(), profile);
+            }
+
+            try {
+                withBusyRetry(conn -> {
+                    try (PreparedStatement ps = conn.prepareStatement("SELECT player_name, balance FROM accounts "
+                            + "WHERE player_name IN (" + SqlUtil.placeholders(byName.size()) + ")")) {
+                        int index = 1;
+                        for (String name : byName.keySet()) {
+                            ps.setString(index++, name);
+                        }
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                CrystalProfile profile = byName.get(rs.getString("player_name"));
+                                if (profile != null) {
+                                    applyBalance(profile, rs.getLong("balance"));
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Error syncing balances for " + byName.size() + " profiles: " + e.getMessage());
+                synced = false;
+            }
         }
+        bulkSyncTimer.recordSince(start);
+        return synced;
     }
 }
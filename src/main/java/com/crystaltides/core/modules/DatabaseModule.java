@@ -2,24 +2,51 @@ package com.crystaltides.core.modules;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.database.SchemaMigrator;
+import com.crystaltides.core.database.SchemaMigrator.Migration;
+import com.crystaltides.core.database.UuidCodec;
+import com.crystaltides.core.database.UuidMigration;
+import com.crystaltides.core.database.UuidMigration.UuidColumn;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class DatabaseModule extends CrystalModule {
 
     private HikariDataSource dataSource;
+    // New tables and the migration target; existing tables keep what they have until migrated
+    private UuidCodec preferredUuidCodec = UuidCodec.STRING;
+    private final Map<String, UuidCodec> uuidCodecs = new ConcurrentHashMap<>();
+    private final AtomicBoolean migrating = new AtomicBoolean();
 
     public DatabaseModule(CrystalCore plugin) {
         super(plugin, "Database");
     }
 
     @Override
-    public void onEnable() {
+    public void prepare() {
+        this.preferredUuidCodec = UuidCodec.fromConfig(plugin.getConfig().getString("database.uuid-format", "string"));
+        uuidCodecs.clear();
         if (setupDatabase()) {
+            migrateSchema();
+        }
+    }
+
+    @Override
+    public void onEnable() {
+        if (dataSource != null && !dataSource.isClosed()) {
             super.onEnable();
-            verifyTables();
         } else {
             plugin.getLogger().severe("Disabling DatabaseModule due to connection errors.");
         }
@@ -42,6 +69,73 @@ public class DatabaseModule extends CrystalModule {
         return dataSource;
     }
 
+    /**
+     * How the UUID column of a table is stored. Resolved in prepare() around the
+     * schema migrations and updated by /crystalcore migrate-uuids as each table
+     * is converted; tables that don't exist yet get database.uuid-format.
+     */
+    public UuidCodec uuidCodec(String table) {
+        return uuidCodecs.getOrDefault(table, preferredUuidCodec);
+    }
+
+    private void resolveUuidCodecs(Connection conn) throws SQLException {
+        for (UuidColumn column : UuidMigration.COLUMNS) {
+            UuidCodec detected = UuidMigration.detect(conn, column);
+            UuidCodec codec = detected != null ? detected : preferredUuidCodec;
+            UuidCodec previous = uuidCodecs.put(column.table(), codec);
+            if (previous != codec && codec != preferredUuidCodec) {
+                plugin.getLogger().warning(column.table() + "." + column.column() + " is stored as "
+                        + codec.columnType() + "; run /crystalcore migrate-uuids to convert it.");
+            }
+        }
+    }
+
+    /**
+     * Converts every VARCHAR(36) UUID column to BINARY(16), table by table, in
+     * the background. Safe to interrupt and run again.
+     * <p>
+     * Only this server learns about each swap. Other servers sharing the
+     * database keep binding text UUIDs until restarted, so they must be
+     * stopped while it runs.
+     */
+    public void startUuidMigration(Consumer<String> progress) {
+        io().run(() -> migrateUuids(progress));
+    }
+
+    private void migrateUuids(Consumer<String> progress) {
+        if (preferredUuidCodec != UuidCodec.BINARY) {
+            progress.accept("Set database.uuid-format to 'binary' first.");
+            return;
+        }
+        if (!migrating.compareAndSet(false, true)) {
+            progress.accept("A UUID migration is already running.");
+            return;
+        }
+        try {
+            UuidMigration migration = new UuidMigration(this::getConnection,
+                    Math.max(1, plugin.getConfig().getInt("database.uuid-migration.chunk-size", 1000)),
+                    plugin.getConfig().getLong("database.uuid-migration.pause-ms", 50L), progress);
+            for (UuidColumn column : UuidMigration.COLUMNS) {
+                boolean done = migration.migrate(column);
+                if (done) {
+                    // A write that bound the old codec fails under strict mode and picks this up on retry
+                    uuidCodecs.put(column.table(), UuidCodec.BINARY);
+                } else {
+                    progress.accept("UUID migration stopped at " + column.table() + ".");
+                    return;
+                }
+            }
+            progress.accept("UUID migration finished.");
+        } catch (SQLException e) {
+            progress.accept("UUID migration failed (run it again to resume): " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.accept("UUID migration interrupted (run it again to resume).");
+        } finally {
+            migrating.set(false);
+        }
+    }
+
     private boolean setupDatabase() {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl("jdbc:mysql://" + plugin.getConfig().getString("database.host") + ":"
@@ -51,7 +145,13 @@ public class DatabaseModule extends CrystalModule {
         config.addDataSourceProperty("cachePrepStmts", "true");
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        // Track autocommit/isolation locally instead of a round trip per transaction
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        // Send executeBatch() as multi-row statements instead of one round trip per row
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
         config.setConnectionTimeout(5000);
+        // IoExecutor never runs more tasks than this at once
+        config.setMaximumPoolSize(Math.max(1, plugin.getConfig().getInt("database.pool-size", 10)));
 
         try {
             dataSource = new HikariDataSource(config);
@@ -63,41 +163,141 @@ public class DatabaseModule extends CrystalModule {
         }
     }
 
-    private void verifyTables() {
+    private void migrateSchema() {
         try (Connection conn = getConnection()) {
-            // Universal Verification Table
-            conn.prepareStatement(
-                    "CREATE TABLE IF NOT EXISTS universal_links (" +
-                            "code VARCHAR(10) PRIMARY KEY, " +
-                            "source VARCHAR(20) NOT NULL, " +
-                            "source_id VARCHAR(100) NOT NULL, " +
-                            "player_name VARCHAR(16), " +
-                            "expires_at BIGINT NOT NULL, " +
-                            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP);")
-                    .execute();
-
-            // Unified Linked Accounts Table
-            conn.prepareStatement(
-                    "CREATE TABLE IF NOT EXISTS linked_accounts (" +
-                            "minecraft_uuid VARCHAR(36) PRIMARY KEY, " +
-                            "minecraft_name VARCHAR(16), " +
-                            "discord_id VARCHAR(20) UNIQUE, " +
-                            "discord_tag VARCHAR(100), " +
-                            "web_user_id VARCHAR(100) UNIQUE, " +
-                            "gacha_balance BIGINT DEFAULT 0, " +
-                            "unlocked_tiers TEXT, " +
-                            "linked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP);")
-                    .execute();
-
-            // Secure Queue Table
-            conn.prepareStatement(
-                    "CREATE TABLE IF NOT EXISTS web_pending_commands (id INT AUTO_INCREMENT PRIMARY KEY, command VARCHAR(512) NOT NULL, executed BOOLEAN DEFAULT FALSE, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, executed_at TIMESTAMP NULL);")
-                    .execute();
-
-            plugin.getLogger().info("Database tables verified.");
+            // On this connection before and after migrating, so no lookup needs a second one
+            resolveUuidCodecs(conn);
+            int version = new SchemaMigrator(plugin.getLogger(), schemaMigrations()).migrate(conn);
+            resolveUuidCodecs(conn);
+            plugin.getLogger().info("Database schema at version " + version + ".");
         } catch (SQLException e) {
-            plugin.getLogger().severe("Could not verified database tables! " + e.getMessage());
+            plugin.getLogger().severe("Could not migrate the database schema! " + e.getMessage());
+        }
+    }
+
+    /**
+     * Every table this plugin uses, in order. Never edit a released migration, add a new one.
+     */
+    private List<Migration> schemaMigrations() {
+        return List.of(
+                new Migration(1, "Base tables", conn -> {
+                    // Universal Verification Table
+                    SchemaMigrator.execute(conn,
+                            "CREATE TABLE IF NOT EXISTS universal_links (" +
+                                    "code VARCHAR(10) PRIMARY KEY, " +
+                                    "source VARCHAR(20) NOT NULL, " +
+                                    "source_id VARCHAR(100) NOT NULL, " +
+                                    "player_name VARCHAR(16), " +
+                                    "expires_at BIGINT NOT NULL, " +
+                                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+                    // Unified Linked Accounts Table
+                    SchemaMigrator.execute(conn,
+                            "CREATE TABLE IF NOT EXISTS linked_accounts (" +
+                                    "minecraft_uuid " + uuidCodec("linked_accounts").columnType() + " PRIMARY KEY, " +
+                                    "minecraft_name VARCHAR(16), " +
+                                    "discord_id VARCHAR(20) UNIQUE, " +
+                                    "discord_tag VARCHAR(100), " +
+                                    "web_user_id VARCHAR(100) UNIQUE, " +
+                                    "gacha_balance BIGINT DEFAULT 0, " +
+                                    "unlocked_tiers TEXT, " +
+                                    "linked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+                    // Last seen and future per-player stats, saved by ProfileModule
+                    SchemaMigrator.execute(conn,
+                            "CREATE TABLE IF NOT EXISTS player_profiles (" +
+                                    "minecraft_uuid " + uuidCodec("player_profiles").columnType() + " PRIMARY KEY, " +
+                                    "player_name VARCHAR(16) NOT NULL, " +
+                                    "last_seen BIGINT NOT NULL, " +
+                                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)");
+
+                    // Secure Queue Table
+                    SchemaMigrator.execute(conn,
+                            "CREATE TABLE IF NOT EXISTS web_pending_commands (" +
+                                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                                    "command VARCHAR(512) NOT NULL, " +
+                                    "executed BOOLEAN DEFAULT FALSE, " +
+                                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                    "executed_at TIMESTAMP NULL, " +
+                                    "claimed_by VARCHAR(64) NULL, " +
+                                    "claimed_at TIMESTAMP NULL)");
+
+                    // Staff presence for the web panel (StaffStatusModule)
+                    SchemaMigrator.execute(conn,
+                            "CREATE TABLE IF NOT EXISTS staff_status (" +
+                                    "uuid " + uuidCodec("staff_status").columnType() + " PRIMARY KEY, " +
+                                    "name VARCHAR(16), " +
+                                    "status VARCHAR(10), " +
+                                    "server_id VARCHAR(20), " +
+                                    "last_update TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)");
+
+                    // Unlocked gacha tiers, one row each (GachaModule)
+                    SchemaMigrator.execute(conn,
+                            "CREATE TABLE IF NOT EXISTS player_tiers (" +
+                                    "uuid " + uuidCodec("player_tiers").columnType() + " NOT NULL, " +
+                                    "tier VARCHAR(64) NOT NULL, " +
+                                    "unlocked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                    "PRIMARY KEY (uuid, tier))");
+                }),
+                // Claim columns for batched dispatch (tables created before 1.5.1 lack them)
+                new Migration(2, "web_pending_commands claim columns", conn -> {
+                    SchemaMigrator.ensureColumn(conn, "web_pending_commands", "claimed_by", "VARCHAR(64) NULL");
+                    SchemaMigrator.ensureColumn(conn, "web_pending_commands", "claimed_at", "TIMESTAMP NULL");
+                }),
+                // Expired link codes are purged in small chunks by expires_at
+                new Migration(3, "universal_links expiry index", conn -> SchemaMigrator.ensureIndex(conn,
+                        "universal_links", "idx_universal_links_expires", "expires_at")),
+                // The queue poll counts and claims unexecuted commands oldest first
+                new Migration(4, "web_pending_commands queue index", conn -> SchemaMigrator.ensureIndex(conn,
+                        "web_pending_commands", "idx_web_pending_commands_queue", "executed, created_at")),
+                // Each batch reads back the rows it claimed
+                new Migration(5, "web_pending_commands claim index", conn -> SchemaMigrator.ensureIndex(conn,
+                        "web_pending_commands", "idx_web_pending_commands_claim", "claimed_by")),
+                // Runs before GachaModule starts writing; INSERT IGNORE makes a retry after a failed run harmless
+                new Migration(6, "Copy unlocked_tiers into player_tiers", this::copyLegacyTiers));
+    }
+
+    private void copyLegacyTiers(Connection conn) throws SQLException {
+        UuidCodec from = uuidCodec("linked_accounts");
+        UuidCodec to = uuidCodec("player_tiers");
+        int copied = 0;
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT minecraft_uuid, unlocked_tiers FROM linked_accounts "
+                        + "WHERE unlocked_tiers IS NOT NULL AND unlocked_tiers <> ''");
+                PreparedStatement insert = conn.prepareStatement(
+                        "INSERT IGNORE INTO player_tiers (uuid, tier) VALUES (?, ?)");
+                ResultSet rs = select.executeQuery()) {
+            int pending = 0;
+            while (rs.next()) {
+                UUID uuid = from.read(rs, "minecraft_uuid");
+                for (String tier : parseLegacyTiers(rs.getString("unlocked_tiers"))) {
+                    to.bind(insert, 1, uuid);
+                    insert.setString(2, tier);
+                    insert.addBatch();
+                    copied++;
+                    if (++pending >= 500) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+        if (copied > 0) {
+            plugin.getLogger().info("Copied " + copied + " unlocked tiers from linked_accounts to player_tiers.");
+        }
+    }
+
+    private static Set<String> parseLegacyTiers(String value) {
+        // Accepts both "bronce,plata" and ["bronce","plata"]
+        Set<String> tiers = new HashSet<>();
+        for (String s : value.replace("[", "").replace("]", "").replace("\"", "").split(",")) {
+            if (!s.trim().isEmpty())
+                tiers.add(s.trim());
         }
+        return tiers;
     }
 
     private void closeDatabase() {
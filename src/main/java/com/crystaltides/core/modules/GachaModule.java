@@ -4,27 +4,57 @@ import org.bukkit.Bukkit;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.database.SqlUtil;
+import com.crystaltides.core.database.UuidCodec;
+import com.crystaltides.core.gacha.TierTable;
+import com.crystaltides.core.metrics.Histogram;
+import com.crystaltides.core.profile.CrystalProfile;
+import com.google.gson.JsonObject;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GachaModule extends CrystalModule {
 
     private DatabaseModule databaseModule;
-    private final Map<Integer, String> modelDataToTier = new HashMap<>();
+    private final ModuleHandle<WebBridgeModule> webBridge;
+    private final ModuleHandle<ProfileModule> profiles;
+    private volatile TierTable tierTable = TierTable.EMPTY;
+    // Keep linked_accounts.unlocked_tiers current for web backends that still read it
+    private boolean writeLegacyColumn;
+    private Histogram updateTimer;
+    // Tiers each online player is known to hold this session (already synced)
+    private final Map<UUID, Set<String>> sessionTiers = new ConcurrentHashMap<>();
 
     public GachaModule(CrystalCore plugin) {
         super(plugin, "GachaScanner");
+        this.webBridge = plugin.getModuleManager().handle(WebBridgeModule.class);
+        this.profiles = plugin.getModuleManager().handle(ProfileModule.class);
+    }
+
+    @Override
+    public List<Class<? extends CrystalModule>> getDependencies() {
+        return List.of(DatabaseModule.class);
     }
 
     @Override
@@ -36,11 +66,23 @@ public class GachaModule extends CrystalModule {
         }
 
         loadConfig();
+        this.updateTimer = metrics().histogram("gacha.update");
+
+        // player_tiers is always written (created and back-filled by DatabaseModule's schema migrations);
+        // "both" (default, also the old "column") additionally appends to the legacy unlocked_tiers list
+        this.writeLegacyColumn = !"table".equalsIgnoreCase(plugin.getConfig().getString("gacha.tier-storage", "both"));
+
         super.onEnable();
     }
 
+    @Override
+    public void onDisable() {
+        sessionTiers.clear();
+        super.onDisable();
+    }
+
     public void loadConfig() {
-        modelDataToTier.clear();
+        Map<Integer, String> modelDataToTier = new HashMap<>();
         ConfigurationSection section = plugin.getConfig().getConfigurationSection("gacha.items");
         if (section != null) {
             for (String key : section.getKeys(false)) {
@@ -53,15 +95,88 @@ public class GachaModule extends CrystalModule {
                 }
             }
         }
-        plugin.getLogger().info("Loaded " + modelDataToTier.size() + " gacha items mappings.");
+        this.tierTable = TierTable.of(modelDataToTier);
+        plugin.getLogger().info("Loaded " + tierTable.size() + " gacha items mappings.");
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onJoin(PlayerJoinEvent event) {
-        // Run scan with a slight delay to ensure inventory is fully loaded/handled
-        plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, () -> scanAndSync(event.getPlayer()), 40L); // 2
-                                                                                                                         // seconds
-                                                                                                                         // delay
+        // Run scan with a slight delay to ensure inventory is fully loaded/handled (2 seconds)
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> scanAndSync(event.getPlayer()), 40L);
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        sessionTiers.remove(event.getPlayer().getUniqueId());
+    }
+
+    // --- Incremental tracking: only the stacks that moved are checked ---
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickup(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player player) {
+            trackItem(player, event.getItem().getItemStack());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            trackItem(player, event.getCurrentItem());
+            trackItem(player, event.getCursor());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            trackItem(player, event.getOldCursor());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCraft(CraftItemEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            trackItem(player, event.getRecipe().getResult());
+        }
+    }
+
+    private void trackItem(Player player, ItemStack item) {
+        String tier = tierOf(item);
+        if (tier == null)
+            return;
+
+        UUID uuid = player.getUniqueId();
+        if (isKnownUnlinked(uuid))
+            return;
+        if (knownTiers(uuid).add(tier)) {
+            // First time we see this tier this session: persist just this one
+            persistTiers(uuid, Set.of(tier));
+        }
+    }
+
+    /**
+     * Tiers this player already has stored or being saved right now. The stored
+     * ones arrive with the profile load, so they are merged in on every lookup;
+     * a save that fails takes its tiers out again so the next event retries.
+     */
+    private Set<String> knownTiers(UUID uuid) {
+        Set<String> known = sessionTiers.computeIfAbsent(uuid, k -> ConcurrentHashMap.newKeySet());
+        ProfileModule profileModule = profiles.get();
+        CrystalProfile profile = profileModule != null ? profileModule.getProfile(uuid) : null;
+        if (profile != null) {
+            known.addAll(profile.getTiers());
+        }
+        return known;
+    }
+
+    private void showTiers(UUID uuid, Set<String> tiers) {
+        // Feeds %crystalcore_tiers%
+        ProfileModule profileModule = profiles.get();
+        CrystalProfile profile = profileModule != null ? profileModule.getProfile(uuid) : null;
+        if (profile != null) {
+            profile.addTiers(tiers);
+        }
     }
 
     public void scanAndSync(Player player) {
@@ -77,76 +192,209 @@ public class GachaModule extends CrystalModule {
     }
 
     private void performScan(Player player) {
-        Set<String> foundTiers = new HashSet<>();
+        // Known unlinked players have no linked_accounts row to attach tiers to; nothing is recorded,
+        // so a link later this session still gets them written
+        if (isKnownUnlinked(player.getUniqueId()))
+            return;
 
         // Scan Inventory (Main Thread)
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null && item.getType() != Material.AIR && item.hasItemMeta()
-                    && item.getItemMeta().hasCustomModelData()) {
-                int modelData = item.getItemMeta().getCustomModelData();
-                if (modelDataToTier.containsKey(modelData)) {
-                    foundTiers.add(modelDataToTier.get(modelData));
-                }
+        Set<String> foundTiers = collectTiers(player.getInventory().getContents());
+        Set<String> known = knownTiers(player.getUniqueId());
+        // Only the tiers not stored yet reach the database
+        Set<String> newTiers = new HashSet<>();
+        for (String tier : foundTiers) {
+            if (known.add(tier)) {
+                newTiers.add(tier);
             }
         }
 
-        if (!foundTiers.isEmpty()) {
+        if (!newTiers.isEmpty()) {
             // Update Database (Async Thread)
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> updateDatabase(player.getUniqueId(), foundTiers));
+            persistTiers(player.getUniqueId(), newTiers);
         }
     }
 
-    private void updateDatabase(UUID uuid, Set<String> newTiers) {
+    public Set<String> collectTiers(ItemStack[] contents) {
+        Set<String> foundTiers = new HashSet<>();
+        for (ItemStack item : contents) {
+            String tier = tierOf(item);
+            if (tier != null) {
+                foundTiers.add(tier);
+            }
+        }
+        return foundTiers;
+    }
+
+    private String tierOf(ItemStack item) {
+        if (item == null || item.getType() == Material.AIR || !item.hasItemMeta())
+            return null;
+
+        ItemMeta meta = item.getItemMeta();
+        return meta.hasCustomModelData() ? tierTable.tierFor(meta.getCustomModelData()) : null;
+    }
+
+    /**
+     * Reads the stored tiers (player_tiers) of these profiles, one IN (...) per chunk.
+     * Blocking, run it on the I/O executor.
+     */
+    public void loadStoredTiers(Collection<CrystalProfile> targets) {
+        if (!isEnabled() || targets.isEmpty())
+            return;
+
+        List<CrystalProfile> pending = new ArrayList<>(targets);
+        UuidCodec codec = databaseModule.uuidCodec("player_tiers");
         try (Connection conn = databaseModule.getConnection()) {
-            // 1. Get current unlocked tiers
-            Set<String> currentTiers = new HashSet<>();
-            String currentJson = "";
-
-            try (PreparedStatement ps = conn
-                    .prepareStatement("SELECT unlocked_tiers FROM linked_accounts WHERE minecraft_uuid = ?")) {
-                ps.setString(1, uuid.toString());
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        currentJson = rs.getString("unlocked_tiers");
-                        if (currentJson != null && !currentJson.isEmpty()) {
-                            // Assuming comma separated for simplicity "bronce,plata"
-                            // If it matches array format like ["a","b"], we might need parsing.
-                            // Let's stick to simple comma separated string for now.
-                            String[] parts = currentJson.replace("[", "").replace("]", "").replace("\"", "").split(",");
-                            for (String s : parts) {
-                                if (!s.trim().isEmpty())
-                                    currentTiers.add(s.trim());
-                            }
+            for (int from = 0; from < pending.size(); from += SqlUtil.IN_CHUNK_SIZE) {
+                List<CrystalProfile> chunk = pending.subList(from, Math.min(pending.size(), from + SqlUtil.IN_CHUNK_SIZE));
+                Map<UUID, CrystalProfile> byUuid = new HashMap<>();
+                for (CrystalProfile profile : chunk) {
+                    byUuid.put(profile.getUuid(), profile);
+                }
+                Map<UUID, List<String>> stored = new HashMap<>();
+                try (PreparedStatement ps = conn.prepareStatement("SELECT uuid, tier FROM player_tiers WHERE uuid IN ("
+                        + SqlUtil.placeholders(chunk.size()) + ")")) {
+                    int index = 1;
+                    for (CrystalProfile profile : chunk) {
+                        codec.bind(ps, index++, profile.getUuid());
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            stored.computeIfAbsent(codec.read(rs, "uuid"), k -> new ArrayList<>()).add(rs.getString("tier"));
                         }
-                    } else {
-                        // User not linked or not in DB, skip
-                        return;
                     }
                 }
+                stored.forEach((uuid, tiers) -> {
+                    CrystalProfile profile = byUuid.get(uuid);
+                    if (profile != null) {
+                        profile.addTiers(tiers);
+                    }
+                });
             }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to load stored tiers for " + pending.size() + " players: " + e.getMessage());
+        }
+    }
 
-            // 2. Add new tiers
-            boolean changed = false;
-            for (String tier : newTiers) {
-                if (!currentTiers.contains(tier)) {
-                    currentTiers.add(tier);
-                    changed = true;
-                }
+    public CompletableFuture<Void> loadStoredTiersAsync(CrystalProfile profile) {
+        if (!isEnabled())
+            return CompletableFuture.completedFuture(null);
+        return io().run(() -> loadStoredTiers(List.of(profile)));
+    }
+
+    private boolean isKnownUnlinked(UUID uuid) {
+        ProfileModule profileModule = profiles.getIfEnabled();
+        return profileModule != null && !profileModule.getLinkedUuids().mightBeLinked(uuid);
+    }
+
+    private void persistTiers(UUID uuid, Set<String> tiers) {
+        io().run(() -> updateDatabase(uuid, tiers)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                // Rejected (queue full) or crashed: not saved, let the next click or scan retry
+                forgetTiers(uuid, tiers);
             }
+        });
+    }
 
-            // 3. Save if changed
-            if (changed) {
-                String updatedString = String.join(",", currentTiers);
-                try (PreparedStatement ps = conn
-                        .prepareStatement("UPDATE linked_accounts SET unlocked_tiers = ? WHERE minecraft_uuid = ?")) {
-                    ps.setString(1, updatedString);
-                    ps.setString(2, uuid.toString());
-                    ps.executeUpdate();
-                    plugin.getLogger().info("Updated tiers for " + uuid + ": " + updatedString);
-                }
+    private void forgetTiers(UUID uuid, Collection<String> tiers) {
+        Set<String> known = sessionTiers.get(uuid);
+        if (known != null) {
+            known.removeAll(tiers);
+        }
+    }
+
+    private void updateDatabase(UUID uuid, Set<String> newTiers) {
+        // Unlinked players have no linked_accounts row, so both statements skip them in SQL
+        long start = System.nanoTime();
+        try (Connection conn = databaseModule.getConnection()) {
+            Set<String> unlocked = insertTierRows(conn, uuid, newTiers);
+            if (writeLegacyColumn) {
+                appendTierColumn(conn, uuid, newTiers);
+            }
+            if (!unlocked.isEmpty()) {
+                plugin.getLogger().info("Updated tiers for " + uuid + ": " + String.join(",", unlocked));
+                showTiers(uuid, unlocked);
+                publishTierUnlock(uuid, unlocked);
             }
+            // Neither inserted nor already stored: no linked_accounts row (yet), retry once they link
+            Set<String> notStored = new HashSet<>(newTiers);
+            notStored.removeAll(unlocked);
+            ProfileModule profileModule = profiles.get();
+            CrystalProfile profile = profileModule != null ? profileModule.getProfile(uuid) : null;
+            if (profile != null) {
+                notStored.removeAll(profile.getTiers());
+            }
+            forgetTiers(uuid, notStored);
         } catch (SQLException e) {
             plugin.getLogger().warning("Error syncing Gacha tiers: " + e.getMessage());
+            forgetTiers(uuid, newTiers);
+        } finally {
+            updateTimer.recordSince(start);
+        }
+    }
+
+    private void publishTierUnlock(UUID uuid, Set<String> tiers) {
+        WebBridgeModule webBridge = this.webBridge.getIfEnabled();
+        if (webBridge == null)
+            return;
+
+        for (String tier : tiers) {
+            JsonObject event = new JsonObject();
+            event.addProperty("uuid", uuid.toString());
+            event.addProperty("tier", tier);
+            webBridge.publishEvent("tier_unlock", "tier:" + uuid + ":" + tier, event);
+        }
+    }
+
+    /**
+     * @return the tiers that were actually new (rows inserted)
+     */
+    private Set<String> insertTierRows(Connection conn, UUID uuid, Set<String> newTiers) throws SQLException {
+        // One batched INSERT IGNORE per tier: the (uuid, tier) primary key does the merge and
+        // each row count says whether that tier was new.
+        // The UUID is bound twice instead of copied from linked_accounts: the tables may differ in UUID storage
+        List<String> ordered = new ArrayList<>(newTiers);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT IGNORE INTO player_tiers (uuid, tier) "
+                + "SELECT ?, ? FROM linked_accounts WHERE minecraft_uuid = ?")) {
+            UuidCodec tierCodec = databaseModule.uuidCodec("player_tiers");
+            UuidCodec linkCodec = databaseModule.uuidCodec("linked_accounts");
+            for (String tier : ordered) {
+                tierCodec.bind(ps, 1, uuid);
+                ps.setString(2, tier);
+                linkCodec.bind(ps, 3, uuid);
+                ps.addBatch();
+            }
+            int[] counts = ps.executeBatch();
+            Set<String> unlocked = new HashSet<>();
+            for (int i = 0; i < counts.length; i++) {
+                // SUCCESS_NO_INFO: the driver couldn't tell; callers only pass tiers not known to be stored
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    unlocked.add(ordered.get(i));
+                }
+            }
+            return unlocked;
         }
     }
+
+    private int appendTierColumn(Connection conn, UUID uuid, Set<String> newTiers) throws SQLException {
+        // Legacy column kept for web backends that still read unlocked_tiers.
+        // Each append is a single atomic UPDATE that also normalizes old ["a","b"] values.
+        String normalized = "REPLACE(REPLACE(REPLACE(REPLACE(COALESCE(unlocked_tiers, ''), '[', ''), ']', ''), '\"', ''), ' ', '')";
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE linked_accounts SET unlocked_tiers = "
+                + "CONCAT_WS(',', NULLIF(" + normalized + ", ''), ?) "
+                + "WHERE minecraft_uuid = ? AND FIND_IN_SET(?, " + normalized + ") = 0")) {
+            UuidCodec codec = databaseModule.uuidCodec("linked_accounts");
+            for (String tier : newTiers) {
+                ps.setString(1, tier);
+                codec.bind(ps, 2, uuid);
+                ps.setString(3, tier);
+                ps.addBatch();
+            }
+            int unlocked = 0;
+            for (int count : ps.executeBatch()) {
+                unlocked += Math.max(count, 0);
+            }
+            return unlocked;
+        }
+    }
+
 }
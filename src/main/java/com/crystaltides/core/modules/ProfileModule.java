@@ -2,46 +2,162 @@ package com.crystaltides.core.modules;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.database.SqlUtil;
+import com.crystaltides.core.database.UuidCodec;
+import com.crystaltides.core.link.LinkedUuidSet;
+import com.crystaltides.core.metrics.Counter;
+import com.crystaltides.core.metrics.Histogram;
 import com.crystaltides.core.profile.CrystalProfile;
+import com.crystaltides.core.profile.OfflineProfileCache;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ProfileModule extends CrystalModule {
 
+    private static final int SAVE_BATCH_SIZE = 500;
+    // GREATEST keeps an older save that lands late from moving last_seen backwards
+    private static final String UPSERT_PROFILE = "INSERT INTO player_profiles (minecraft_uuid, player_name, last_seen) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE player_name = VALUES(player_name), "
+            + "last_seen = GREATEST(last_seen, VALUES(last_seen))";
+
     private final Map<UUID, CrystalProfile> profiles = new ConcurrentHashMap<>();
+    // Players who left with unsaved changes, written by the next flush
+    private final Map<UUID, CrystalProfile> departed = new ConcurrentHashMap<>();
+    // Who can have a linked_accounts row; everyone else skips the link lookups
+    private final LinkedUuidSet linkedUuids = new LinkedUuidSet();
+    private BukkitTask linkedReloadTask;
+    private final AtomicBoolean reloadingLinked = new AtomicBoolean();
+    private Counter linkLookupsSkipped;
     private DatabaseModule databaseModule;
+    private final ModuleHandle<BancoModule> banco;
+    private final ModuleHandle<GachaModule> gacha;
+    private final ModuleHandle<WebBridgeModule> webBridge;
+    private OfflineProfileCache offlineCache;
+    private Counter offlineHits;
+    private Counter offlineMisses;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private BukkitTask flushTask;
+    private long shutdownFlushMs;
+    private long loginTimeoutNanos;
+    private Histogram loadTimer;
+    private Histogram loginTimer;
+    private Counter loginTimeouts;
+    private Histogram flushTimer;
+    private Counter savedCounter;
 
     public ProfileModule(CrystalCore plugin) {
         super(plugin, "Profiles");
+        this.banco = plugin.getModuleManager().handle(BancoModule.class);
+        this.gacha = plugin.getModuleManager().handle(GachaModule.class);
+        this.webBridge = plugin.getModuleManager().handle(WebBridgeModule.class);
+    }
+
+    @Override
+    public List<Class<? extends CrystalModule>> getSoftDependencies() {
+        // Works without them (empty profiles), but the preload needs them up
+        return List.of(DatabaseModule.class, BancoModule.class, GachaModule.class);
     }
 
     @Override
     public void onEnable() {
         super.onEnable();
+        this.loadTimer = metrics().histogram("profiles.load");
+        this.loginTimer = metrics().histogram("profiles.login");
+        this.loginTimeouts = metrics().counter("profiles.login_timeouts");
+        this.loginTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(1L, plugin.getConfig().getLong("profiles.login-timeout-ms", 1500L)));
+        metrics().gauge("profiles.cached", profiles::size);
+        metrics().gauge("profiles.departed", departed::size);
+        this.flushTimer = metrics().histogram("profiles.flush");
+        this.savedCounter = metrics().counter("profiles.saved");
+        this.offlineCache = new OfflineProfileCache(
+                Math.max(0L, plugin.getConfig().getLong("profiles.offline-cache.max-memory-kb", 512L)) * 1024L,
+                Math.max(0L, plugin.getConfig().getLong("profiles.offline-cache.ttl-seconds", 120L)) * 1000L);
+        this.offlineHits = metrics().counter("profiles.offline_hits");
+        this.offlineMisses = metrics().counter("profiles.offline_misses");
+        metrics().gauge("profiles.offline_cached", offlineCache::size);
+        metrics().gauge("profiles.offline_bytes", offlineCache::bytes);
+        metrics().gauge("profiles.linked_known", linkedUuids::size);
+        this.linkLookupsSkipped = metrics().counter("profiles.link_lookups_skipped");
         this.databaseModule = plugin.getModuleManager().getModule(DatabaseModule.class);
         if (databaseModule == null) {
             plugin.getLogger().severe("ProfileModule requires DatabaseModule, but it's not loaded!");
+        } else {
+            long intervalTicks = Math.max(1L, plugin.getConfig().getLong("profiles.flush-interval-seconds", 60L)) * 20L;
+            this.shutdownFlushMs = Math.max(0L, plugin.getConfig().getLong("profiles.shutdown-flush-timeout-ms", 3000L));
+            this.flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin,
+                    () -> io().run(this::flushDirty), intervalTicks, intervalTicks);
+
+            // Catches links made outside this server (admin edits, other servers)
+            long reloadTicks = Math.max(1L, plugin.getConfig().getLong("profiles.linked-reload-minutes", 30L)) * 60L * 20L;
+            io().run(this::reloadLinkedUuids);
+            this.linkedReloadTask = plugin.getServer().getScheduler().runTaskTimer(plugin,
+                    () -> io().run(this::reloadLinkedUuids), reloadTicks, reloadTicks);
         }
+        // Profiles are cleared on disable, so /crystalcore reload must rebuild them for everyone online
+        preloadOnlineProfiles();
     }
 
     @Override
     public void onDisable() {
-        // Save all online profiles
-        for (CrystalProfile profile : profiles.values()) {
-            saveProfile(profile);
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (linkedReloadTask != null) {
+            linkedReloadTask.cancel();
+            linkedReloadTask = null;
+        }
+        // Save what changed, but never hold the server up for longer than the deadline
+        if (databaseModule != null) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownFlushMs);
+            boolean locked = false;
+            try {
+                locked = flushLock.tryLock(shutdownFlushMs, TimeUnit.MILLISECONDS);
+                if (locked) {
+                    int unsaved = writeDirty(deadline);
+                    if (unsaved > 0) {
+                        plugin.getLogger().warning("Shutdown flush left " + unsaved + " profiles unsaved (timeout or database errors).");
+                    }
+                } else {
+                    plugin.getLogger().warning("Shutdown flush skipped, a previous flush is still running.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (locked) {
+                    flushLock.unlock();
+                }
+            }
         }
         profiles.clear();
+        departed.clear();
+        offlineCache.clear();
         super.onDisable();
     }
 
@@ -49,15 +165,148 @@ public class ProfileModule extends CrystalModule {
         return profiles.get(uuid);
     }
 
+    public Collection<CrystalProfile> getProfiles() {
+        return Collections.unmodifiableCollection(profiles.values());
+    }
+
+    public LinkedUuidSet getLinkedUuids() {
+        return linkedUuids;
+    }
+
+    /**
+     * Streams every linked UUID into a new set and swaps it in.
+     */
+    private void reloadLinkedUuids() {
+        if (!reloadingLinked.compareAndSet(false, true))
+            return;
+        try {
+            streamLinkedUuids();
+        } finally {
+            reloadingLinked.set(false);
+        }
+    }
+
+    private void streamLinkedUuids() {
+        long start = System.currentTimeMillis();
+        LinkedUuidSet fresh = new LinkedUuidSet();
+        UuidCodec codec = databaseModule.uuidCodec("linked_accounts");
+        linkedUuids.beginReload();
+        try (Connection conn = databaseModule.getConnection();
+                PreparedStatement ps = conn.prepareStatement("SELECT minecraft_uuid FROM linked_accounts",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows one by one instead of buffering the whole table
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        UUID uuid = codec.read(rs, 1);
+                        if (uuid != null) {
+                            fresh.add(uuid);
+                        }
+                    } catch (IllegalArgumentException ignored) {
+                        // Malformed row, can't belong to a player anyway
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            linkedUuids.cancelReload();
+            plugin.getLogger().warning("Failed to load linked accounts: " + e.getMessage());
+            return;
+        }
+        boolean first = !linkedUuids.isLoaded();
+        linkedUuids.replace(fresh);
+        if (first) {
+            plugin.getLogger().info("Loaded " + linkedUuids.size() + " linked accounts in "
+                    + (System.currentTimeMillis() - start) + "ms.");
+        }
+    }
+
+    /**
+     * Drops the player's cached offline profile, e.g. after a link or unlink.
+     */
+    public void invalidateOffline(UUID uuid) {
+        if (offlineCache != null) {
+            offlineCache.invalidate(uuid);
+        }
+    }
+
     public void reloadProfile(java.util.UUID uuid) {
+        invalidateOffline(uuid);
         org.bukkit.entity.Player player = org.bukkit.Bukkit.getPlayer(uuid);
         if (player != null && player.isOnline()) {
-            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-                CrystalProfile newProfile = loadProfile(uuid, player.getName());
-                if (newProfile != null) {
-                    profiles.put(uuid, newProfile);
+            CrystalProfile newProfile = new CrystalProfile(uuid, player.getName());
+            startLoad(newProfile, true, true).whenComplete((ignored, error) -> profiles.put(uuid, newProfile));
+        }
+    }
+
+    private void preloadOnlineProfiles() {
+        Collection<? extends Player> online = plugin.getServer().getOnlinePlayers();
+        if (online.isEmpty())
+            return;
+
+        Map<UUID, CrystalProfile> loaded = new HashMap<>();
+        for (Player player : online) {
+            loaded.put(player.getUniqueId(), new CrystalProfile(player.getUniqueId(), player.getName()));
+        }
+
+        io().run(() -> {
+            long start = System.currentTimeMillis();
+
+            // 1. Link Data (MySQL), one IN (...) per chunk
+            if (databaseModule != null) {
+                loadLinkData(loaded);
+            }
+
+            // 2. Economy Data (SQLite), one IN (...) per chunk
+            BancoModule bancoModule = banco.getIfEnabled();
+            if (bancoModule != null) {
+                bancoModule.syncProfiles(loaded.values());
+            }
+
+            // 3. Unlocked gacha tiers (MySQL), one IN (...) per chunk
+            GachaModule gachaModule = gacha.getIfEnabled();
+            if (gachaModule != null) {
+                gachaModule.loadStoredTiers(loaded.values());
+            }
+
+            int added = 0;
+            for (CrystalProfile profile : loaded.values()) {
+                // Skip players that left meanwhile, and never replace a profile loaded by a fresh login
+                if (plugin.getServer().getPlayer(profile.getUuid()) != null
+                        && profiles.putIfAbsent(profile.getUuid(), profile) == null) {
+                    added++;
+                }
+            }
+            plugin.getLogger().info("Preloaded " + added + " online profiles in "
+                    + (System.currentTimeMillis() - start) + "ms.");
+        });
+    }
+
+    private void loadLinkData(Map<UUID, CrystalProfile> loaded) {
+        List<UUID> uuids = new ArrayList<>(loaded.keySet());
+        UuidCodec codec = databaseModule.uuidCodec("linked_accounts");
+        try (Connection conn = databaseModule.getConnection()) {
+            for (int from = 0; from < uuids.size(); from += SqlUtil.IN_CHUNK_SIZE) {
+                List<UUID> chunk = uuids.subList(from, Math.min(uuids.size(), from + SqlUtil.IN_CHUNK_SIZE));
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT minecraft_uuid, discord_id, web_user_id FROM linked_accounts WHERE minecraft_uuid IN ("
+                                + SqlUtil.placeholders(chunk.size()) + ")")) {
+                    int index = 1;
+                    for (UUID uuid : chunk) {
+                        codec.bind(ps, index++, uuid);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            CrystalProfile profile = loaded.get(codec.read(rs, "minecraft_uuid"));
+                            if (profile != null) {
+                                applyLinkData(profile, rs);
+                            }
+                        }
+                    }
                 }
-            });
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to preload link data for " + uuids.size() + " players: " + e.getMessage());
         }
     }
 
@@ -70,15 +319,66 @@ public class ProfileModule extends CrystalModule {
         // Load data BEFORE join
         UUID uuid = event.getUniqueId();
         String name = event.getName();
+        long start = System.nanoTime();
+        long deadline = start + loginTimeoutNanos;
 
-        CrystalProfile profile = loadProfile(uuid, name);
-        if (profile != null) {
-            profiles.put(uuid, profile);
-            // Update database last seen immediately or on quit?
-            // Let's keep it simple for now and just load.
-        } else {
-            // Create new empty profile if load failed (or handle error)
-            profiles.put(uuid, new CrystalProfile(uuid, name));
+        CrystalProfile profile = loadCachedProfile(uuid, name, deadline);
+        if (profile == null) {
+            // MySQL and SQLite at the same time, through the I/O executor like everything else
+            profile = new CrystalProfile(uuid, name);
+            boolean mightBeLinked = linkedUuids.mightBeLinked(uuid);
+            if (!mightBeLinked) {
+                linkLookupsSkipped.increment();
+            }
+            awaitLogin(profile, startLoad(profile, mightBeLinked, true), deadline);
+            if (!mightBeLinked && databaseModule != null) {
+                // The set only hears of links made through this server: confirm off the login path
+                CrystalProfile joining = profile;
+                io().run(() -> confirmUnlinked(joining));
+            }
+        }
+        // Seen now; written by the next flush
+        profile.markDirty(CrystalProfile.DIRTY_LAST_SEEN);
+        profiles.put(uuid, profile);
+        loginTimer.recordSince(start);
+    }
+
+    /**
+     * Starts the link (MySQL) and balance (SQLite) lookups in parallel. Each
+     * writes into the profile as it completes, so a profile published before
+     * they finish fills in by itself.
+     */
+    private CompletableFuture<Void> startLoad(CrystalProfile profile, boolean linkData, boolean economy) {
+        CompletableFuture<Void> link = linkData && databaseModule != null
+                ? io().run(() -> loadLinkData(profile))
+                : CompletableFuture.completedFuture(null);
+        // Tiers are only ever stored for linked players
+        GachaModule gachaModule = linkData ? gacha.getIfEnabled() : null;
+        CompletableFuture<Void> tiers = gachaModule != null
+                ? gachaModule.loadStoredTiersAsync(profile)
+                : CompletableFuture.completedFuture(null);
+        BancoModule bancoModule = economy ? banco.getIfEnabled() : null;
+        CompletableFuture<Void> balance = bancoModule != null
+                ? bancoModule.syncProfileAsync(profile)
+                : CompletableFuture.completedFuture(null);
+        return CompletableFuture.allOf(link, balance, tiers);
+    }
+
+    /**
+     * Waits for the lookups until the login deadline; a slow database lets the
+     * player in with a partial profile instead of holding the login queue.
+     */
+    private void awaitLogin(CrystalProfile profile, CompletableFuture<Void> loading, long deadline) {
+        try {
+            loading.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            loginTimeouts.increment();
+            plugin.getLogger().warning("Profile data for " + profile.getPlayerName()
+                    + " is late, joining with a partial profile.");
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning("Failed to load profile for " + profile.getPlayerName() + ": " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -87,46 +387,176 @@ public class ProfileModule extends CrystalModule {
         UUID uuid = event.getPlayer().getUniqueId();
         CrystalProfile profile = profiles.remove(uuid);
         if (profile != null) {
-            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> saveProfile(profile));
+            // A pending link code may be used from Discord/web while they are away: don't cache a stale link state
+            WebBridgeModule webBridgeModule = webBridge.getIfEnabled();
+            if (webBridgeModule == null || !webBridgeModule.hasActiveLinkCode(uuid)) {
+                BancoModule bancoModule = banco.getIfEnabled();
+                offlineCache.put(profile, bancoModule != null ? bancoModule.getDataVersion() : 0L,
+                        System.currentTimeMillis());
+            }
+        }
+        if (profile != null && databaseModule != null) {
+            profile.setLastSeen(System.currentTimeMillis());
+            if (profile.isDirty()) {
+                departed.put(uuid, profile);
+                // A flush already running picks it up before it returns
+                if (!flushLock.isLocked()) {
+                    io().run(this::flushDirty);
+                }
+            }
         }
     }
 
-    private CrystalProfile loadProfile(UUID uuid, String name) {
-        if (databaseModule == null)
-            return new CrystalProfile(uuid, name);
-
-        CrystalProfile profile = new CrystalProfile(uuid, name);
+    /**
+     * Rejoin within the TTL: the profile from the offline cache, with the
+     * balance re-read only if Banco's file changed since the player left.
+     */
+    private CrystalProfile loadCachedProfile(UUID uuid, String name, long deadline) {
+        OfflineProfileCache.Hit hit = offlineCache.take(uuid, name, System.currentTimeMillis());
+        if (hit == null) {
+            offlineMisses.increment();
+            return null;
+        }
+        offlineHits.increment();
+        CrystalProfile profile = hit.profile();
+        BancoModule bancoModule = banco.getIfEnabled();
+        if (bancoModule != null && bancoModule.getDataVersion() != hit.economyVersion()) {
+            awaitLogin(profile, startLoad(profile, false, true), deadline);
+        }
+        return profile;
+    }
 
-        // 1. Load Link Data (MySQL)
+    private void loadLinkData(CrystalProfile profile) {
+        long start = System.nanoTime();
         try (Connection conn = databaseModule.getConnection();
                 PreparedStatement ps = conn.prepareStatement(
                         "SELECT discord_id, web_user_id FROM linked_accounts WHERE minecraft_uuid = ?")) {
 
-            ps.setString(1, uuid.toString());
+            databaseModule.uuidCodec("linked_accounts").bind(ps, 1, profile.getUuid());
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    profile.setLinked(true);
-                    profile.setDiscordId(rs.getString("discord_id"));
-                    profile.setWebUserId(rs.getString("web_user_id"));
+                    applyLinkData(profile, rs);
+                    // /crystalcore sync may be how we learn about a link made elsewhere
+                    linkedUuids.add(profile.getUuid());
                 }
             }
         } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to load profile for " + name + ": " + e.getMessage());
+            plugin.getLogger().warning("Failed to load profile for " + profile.getPlayerName() + ": " + e.getMessage());
+        } finally {
+            loadTimer.recordSince(start);
         }
+    }
 
-        // 2. Load Economy Data (SQLite via BancoModule)
-        BancoModule bancoModule = plugin.getModuleManager().getModule(BancoModule.class);
-        if (bancoModule != null && bancoModule.isEnabled()) {
-            bancoModule.syncProfile(profile);
+    /**
+     * Catches a link made on another server since the last set reload.
+     */
+    private void confirmUnlinked(CrystalProfile profile) {
+        loadLinkData(profile);
+        if (!profile.isLinked())
+            return;
+        GachaModule gachaModule = gacha.getIfEnabled();
+        if (gachaModule != null) {
+            gachaModule.loadStoredTiers(List.of(profile));
         }
+    }
 
-        return profile;
+    private void applyLinkData(CrystalProfile profile, ResultSet rs) throws SQLException {
+        profile.setLinked(true);
+        profile.setDiscordId(rs.getString("discord_id"));
+        profile.setWebUserId(rs.getString("web_user_id"));
+    }
+
+    private void flushDirty() {
+        if (!flushLock.tryLock()) {
+            return; // Another flush is running and will see our changes
+        }
+        try {
+            // Go again only for players who quit during a clean pass; failed saves wait for the next periodic flush
+            while (writeDirty(0L) == 0 && !departed.isEmpty()) {
+                // Loop until nothing new departed
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every dirty profile (online and departed) in batched upserts.
+     *
+     * @param deadline System.nanoTime() after which remaining chunks are skipped, 0 for none
+     * @return number of profiles left unsaved (deadline or failed write), queued again for the next flush
+     */
+    private int writeDirty(long deadline) {
+        List<PendingSave> batch = new ArrayList<>();
+        for (CrystalProfile profile : departed.values()) {
+            if (departed.remove(profile.getUuid(), profile)) {
+                collect(batch, profile, true);
+            }
+        }
+        for (CrystalProfile profile : profiles.values()) {
+            collect(batch, profile, false);
+        }
+        if (batch.isEmpty())
+            return 0;
+
+        long start = System.nanoTime();
+        int unsaved = 0;
+        for (int from = 0; from < batch.size(); from += SAVE_BATCH_SIZE) {
+            List<PendingSave> chunk = batch.subList(from, Math.min(batch.size(), from + SAVE_BATCH_SIZE));
+            if (deadline != 0L && System.nanoTime() >= deadline) {
+                unsaved += chunk.size();
+                requeue(chunk);
+                continue;
+            }
+            try {
+                writeChunk(chunk, deadline);
+                savedCounter.add(chunk.size());
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to save " + chunk.size() + " profiles: " + e.getMessage());
+                requeue(chunk);
+                unsaved += chunk.size();
+            }
+        }
+        flushTimer.recordSince(start);
+        return unsaved;
+    }
+
+    private void collect(List<PendingSave> batch, CrystalProfile profile, boolean departed) {
+        int fields = profile.takeDirty();
+        if (fields != 0) {
+            batch.add(new PendingSave(profile, fields, departed));
+        }
+    }
+
+    private void requeue(List<PendingSave> chunk) {
+        for (PendingSave save : chunk) {
+            save.profile().markDirty(save.fields());
+            if (save.departed()) {
+                departed.putIfAbsent(save.profile().getUuid(), save.profile());
+            }
+        }
+    }
+
+    private void writeChunk(List<PendingSave> chunk, long deadline) throws SQLException {
+        UuidCodec codec = databaseModule.uuidCodec("player_profiles");
+        try (Connection conn = databaseModule.getConnection();
+                PreparedStatement ps = conn.prepareStatement(UPSERT_PROFILE)) {
+            if (deadline != 0L) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                ps.setQueryTimeout((int) Math.max(1L, (remainingMs + 999L) / 1000L));
+            }
+            for (PendingSave save : chunk) {
+                CrystalProfile profile = save.profile();
+                codec.bind(ps, 1, profile.getUuid());
+                ps.setString(2, profile.getPlayerName());
+                ps.setLong(3, profile.getLastSeen());
+                ps.addBatch();
+            }
+            // rewriteBatchedStatements turns this into one multi-row INSERT
+            ps.executeBatch();
+        }
     }
 
-    private void saveProfile(CrystalProfile profile) {
-        // For now, we only updated 'last seen' or other things if we had them in DB.
-        // Since we don't have a dedicated 'users' table (only linked_accounts),
-        // we might not need to save anything unless they are linked.
-        // Implementation for saving future stats goes here.
+    private record PendingSave(CrystalProfile profile, int fields, boolean departed) {
     }
 }
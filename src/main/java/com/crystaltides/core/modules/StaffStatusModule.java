@@ -2,23 +2,52 @@ package com.crystaltides.core.modules;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.database.UuidCodec;
+import com.crystaltides.core.metrics.Histogram;
+import com.crystaltides.core.profile.CrystalProfile;
+import com.google.gson.JsonObject;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class StaffStatusModule extends CrystalModule {
 
     private DatabaseModule databaseModule;
+    private final ModuleHandle<WebBridgeModule> webBridge;
+    private final ModuleHandle<ProfileModule> profiles;
     private final String SERVER_NAME = "survival"; // Can be moved to config later
 
+    // Write-behind buffer: only the latest transition per player is kept
+    private final Map<UUID, PresenceUpdate> pendingUpdates = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private BukkitTask flushTask;
+    private int batchSize;
+    private Histogram flushTimer;
+
     public StaffStatusModule(CrystalCore plugin) {
         super(plugin, "StaffStatus");
+        this.webBridge = plugin.getModuleManager().handle(WebBridgeModule.class);
+        this.profiles = plugin.getModuleManager().handle(ProfileModule.class);
+    }
+
+    @Override
+    public List<Class<? extends CrystalModule>> getDependencies() {
+        return List.of(DatabaseModule.class);
     }
 
     @Override
@@ -29,28 +58,66 @@ public class StaffStatusModule extends CrystalModule {
             return;
         }
 
-        // Verify Table
-        try (Connection conn = databaseModule.getConnection()) {
-            conn.prepareStatement(
-                    "CREATE TABLE IF NOT EXISTS staff_status (" +
-                            "uuid VARCHAR(36) PRIMARY KEY, " +
-                            "name VARCHAR(16), " +
-                            "status VARCHAR(10), " +
-                            "server_id VARCHAR(20), " +
-                            "last_update TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
-                            ");")
-                    .execute();
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Could not create staff_status table: " + e.getMessage());
-            return;
-        }
+        // staff_status is created by DatabaseModule's schema migrations
+        long intervalMs = plugin.getConfig().getLong("staff-status.flush-interval-ms", 250L);
+        long intervalTicks = Math.max(1L, intervalMs / 50L);
+        this.flushTimer = metrics().histogram("staff.flush");
+        metrics().gauge("staff.pending_updates", pendingUpdates::size);
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("staff-status.batch-size", 50));
+        this.flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            if (!pendingUpdates.isEmpty()) {
+                io().run(this::flushPending);
+            }
+        }, intervalTicks, intervalTicks);
+        // After a reload nobody joins again: re-mark whoever is online (main thread)
+        plugin.getServer().getScheduler().runTask(plugin, this::markOnlinePlayers);
 
         super.onEnable();
     }
 
+    @Override
+    public void onDisable() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (Bukkit.isStopping()) {
+            // Quit events may never fire for players still connected at shutdown
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                pendingUpdates.put(player.getUniqueId(),
+                        new PresenceUpdate(player.getUniqueId(), player.getName(), "OFFLINE"));
+            }
+        }
+        // Blocking final flush so the web panel sees the shutdown state
+        flushLock.lock();
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+        super.onDisable();
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onJoin(PlayerJoinEvent event) {
-        updateStatus(event.getPlayer().getUniqueId(), event.getPlayer().getName(), "ONLINE");
+        markOnline(event.getPlayer());
+    }
+
+    private void markOnlinePlayers() {
+        if (!isEnabled())
+            return;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            markOnline(player);
+        }
+    }
+
+    private void markOnline(Player player) {
+        ProfileModule profileModule = profiles.get();
+        CrystalProfile profile = profileModule != null ? profileModule.getProfile(player.getUniqueId()) : null;
+        if (profile != null) {
+            profile.setPresence("ONLINE");
+        }
+        updateStatus(player.getUniqueId(), player.getName(), "ONLINE");
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -59,26 +126,84 @@ public class StaffStatusModule extends CrystalModule {
     }
 
     private void updateStatus(UUID uuid, String name, String status) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Connection conn = databaseModule.getConnection();
-                    PreparedStatement ps = conn.prepareStatement(
-                            "INSERT INTO staff_status (uuid, name, status, server_id) VALUES (?, ?, ?, ?) " +
-                                    "ON DUPLICATE KEY UPDATE name = ?, status = ?, server_id = ?, last_update = CURRENT_TIMESTAMP")) {
-
-                ps.setString(1, uuid.toString());
-                ps.setString(2, name);
-                ps.setString(3, status);
-                ps.setString(4, SERVER_NAME);
-
-                // Update part
-                ps.setString(5, name);
-                ps.setString(6, status);
-                ps.setString(7, SERVER_NAME);
-
-                ps.executeUpdate();
+        // join -> quit -> join collapses into a single row write
+        pendingUpdates.put(uuid, new PresenceUpdate(uuid, name, status));
+
+        WebBridgeModule webBridge = this.webBridge.getIfEnabled();
+        if (webBridge != null) {
+            JsonObject event = new JsonObject();
+            event.addProperty("uuid", uuid.toString());
+            event.addProperty("name", name);
+            event.addProperty("status", status);
+            event.addProperty("server", SERVER_NAME);
+            webBridge.publishEvent("presence", "presence:" + uuid, event);
+        }
+        if (pendingUpdates.size() >= batchSize) {
+            io().run(this::flushPending);
+        }
+    }
+
+    private void flushPending() {
+        if (pendingUpdates.isEmpty() || !flushLock.tryLock()) {
+            return; // Nothing queued or another flush is already running
+        }
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writePending() {
+        if (pendingUpdates.isEmpty())
+            return;
+
+        long start = System.nanoTime();
+        List<PresenceUpdate> batch = new ArrayList<>(pendingUpdates.size());
+        for (PresenceUpdate update : pendingUpdates.values()) {
+            // Only take the entry if it wasn't replaced by a newer transition meanwhile
+            if (pendingUpdates.remove(update.uuid(), update)) {
+                batch.add(update);
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<PresenceUpdate> chunk = batch.subList(from, Math.min(batch.size(), from + batchSize));
+            try {
+                writeChunk(chunk);
             } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to update staff status for " + name + ": " + e.getMessage());
+                plugin.getLogger().warning("Failed to flush " + chunk.size() + " staff status updates: " + e.getMessage());
+                // Re-queue unless a newer state arrived while we were writing
+                for (PresenceUpdate update : chunk) {
+                    pendingUpdates.putIfAbsent(update.uuid(), update);
+                }
             }
-        });
+        }
+        flushTimer.recordSince(start);
+    }
+
+    private void writeChunk(List<PresenceUpdate> chunk) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO staff_status (uuid, name, status, server_id) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE name = VALUES(name), status = VALUES(status), "
+                + "server_id = VALUES(server_id), last_update = CURRENT_TIMESTAMP");
+
+        UuidCodec codec = databaseModule.uuidCodec("staff_status");
+        try (Connection conn = databaseModule.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (PresenceUpdate update : chunk) {
+                codec.bind(ps, index++, update.uuid());
+                ps.setString(index++, update.name());
+                ps.setString(index++, update.status());
+                ps.setString(index++, SERVER_NAME);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private record PresenceUpdate(UUID uuid, String name, String status) {
     }
 }
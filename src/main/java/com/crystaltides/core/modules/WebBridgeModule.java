@@ -2,6 +2,14 @@ package com.crystaltides.core.modules;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.database.SqlUtil;
+import com.crystaltides.core.economy.Leaderboard;
+import com.crystaltides.core.link.AccountLinker;
+import com.crystaltides.core.link.LinkCodeStore;
+import com.crystaltides.core.link.LinkCodeStore.LinkCode;
+import com.crystaltides.core.metrics.Histogram;
+import com.crystaltides.core.network.EventPublisher;
 import com.crystaltides.core.profile.CrystalProfile;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
@@ -9,6 +17,8 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import com.google.gson.JsonObject;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
@@ -19,6 +29,15 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import java.net.URI;
@@ -27,12 +46,38 @@ import org.java_websocket.handshake.ServerHandshake;
 
 public class WebBridgeModule extends CrystalModule implements CommandExecutor {
 
+    private static final int CODE_PURGE_CHUNK = 500;
+
     private DatabaseModule databaseModule;
     private ProfileModule profileModule;
-    private WebSocketClient wsClient;
+    private volatile WebSocketClient wsClient;
+    private final EventPublisher eventPublisher;
+    private BukkitTask eventFlushTask;
+    // Batch being run on the main thread, if any (main thread only)
+    private CommandDrainTask drainTask;
+
+    // Command queue dispatch: one claimed batch in flight at a time
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+    private final AtomicBoolean refreshRequested = new AtomicBoolean(false);
+    private int commandBatchSize;
+    private long tickBudgetNanos;
+    private int claimTimeoutSeconds;
+    // Claimed by the last poll; a full batch (web-bridge.batch-size) means more are waiting
+    private final AtomicLong claimedCommands = new AtomicLong();
+    private final AtomicLong drainingCommands = new AtomicLong();
+    private Histogram checkTimer;
+
+    // Codes issued here by /link, validated without touching the database
+    private final LinkCodeStore linkCodes = new LinkCodeStore();
 
     public WebBridgeModule(CrystalCore plugin) {
         super(plugin, "WebBridge");
+        this.eventPublisher = new EventPublisher(plugin, () -> wsClient);
+    }
+
+    @Override
+    public List<Class<? extends CrystalModule>> getDependencies() {
+        return List.of(DatabaseModule.class, ProfileModule.class);
     }
 
     @Override
@@ -48,13 +93,38 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
             new CrystalCoreExpansion(plugin).register();
         }
 
+        this.commandBatchSize = Math.max(1, plugin.getConfig().getInt("web-bridge.batch-size", 50));
+        this.tickBudgetNanos = Math.max(1L, plugin.getConfig().getLong("web-bridge.tick-budget-ms", 5L)) * 1_000_000L;
+        this.claimTimeoutSeconds = Math.max(30, plugin.getConfig().getInt("web-bridge.claim-timeout-seconds", 300));
+        this.checkTimer = metrics().histogram("webbridge.check_commands");
+        metrics().gauge("webbridge.claimed_commands", claimedCommands::get);
+        metrics().gauge("webbridge.draining_commands", drainingCommands::get);
+        metrics().gauge("webbridge.link_codes", linkCodes::size);
+
+        // A batch interrupted by a reload is re-claimed once its claim times out
+        dispatching.set(false);
+
         startCleanupTask();
         startCommandQueueTask();
         connectWebSocket();
+
+        long windowTicks = Math.max(1L, plugin.getConfig().getLong("web-bridge.event-window-ms", 250L) / 50L);
+        this.eventFlushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, eventPublisher::flush,
+                windowTicks, windowTicks);
     }
 
     @Override
     public void onDisable() {
+        if (drainTask != null) {
+            // Record what already ran so it isn't dispatched again once the claim expires
+            drainTask.stop();
+            drainTask = null;
+        }
+        if (eventFlushTask != null) {
+            eventFlushTask.cancel();
+            eventFlushTask = null;
+        }
+        eventPublisher.flush();
         if (wsClient != null) {
             wsClient.close();
         }
@@ -72,6 +142,7 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
                 public void onOpen(ServerHandshake handshakedata) {
                     plugin.getLogger().info("✅ Connected to Web Bridge via WebSocket!");
                     wsClient.send("ping"); // Handshake/Auth could go here
+                    eventPublisher.sendHello();
                 }
 
                 @Override
@@ -81,7 +152,7 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
                         // Use main thread scheduler to ensure sync if needed,
                         // though checkForCommands runs async DB queries.
                         // We run it async immediately.
-                        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> checkForCommands());
+                        io().run(WebBridgeModule.this::checkForCommands);
                     } else if (message.equals("pong")) {
                         // Heartbeat response
                     }
@@ -113,6 +184,16 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
         }
     }
 
+    /**
+     * Queues a change event for the web backend. Events with the same key are
+     * merged within web-bridge.event-window-ms; only the latest is sent.
+     */
+    public void publishEvent(String type, String key, JsonObject data) {
+        if (isEnabled()) {
+            eventPublisher.publish(type, key, data);
+        }
+    }
+
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player)) {
@@ -137,171 +218,168 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
         return false;
     }
 
+    /**
+     * Whether the player has an unused code from /link, i.e. may get linked from Discord/web while offline.
+     */
+    public boolean hasActiveLinkCode(UUID uuid) {
+        return linkCodes.active(uuid, System.currentTimeMillis()) != null;
+    }
+
     private void handleLinkCode(Player player, String code) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Connection conn = databaseModule.getConnection()) {
-                String source = null;
-                String sourceId = null;
-
-                try (PreparedStatement stmt = conn
-                        .prepareStatement("SELECT source, source_id, expires_at FROM universal_links WHERE code = ?")) {
-                    stmt.setString(1, code.toUpperCase());
-                    ResultSet rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        if (System.currentTimeMillis() > rs.getLong("expires_at")) {
-                            player.sendMessage("§cCódigo expirado.");
-                            return;
-                        }
-                        source = rs.getString("source");
-                        sourceId = rs.getString("source_id");
-                    } else {
-                        player.sendMessage("§cCódigo inválido.");
-                        return;
-                    }
-                }
+        String normalized = code.toUpperCase();
+        if (!LinkCodeStore.isWellFormed(normalized)) {
+            player.sendMessage("§cCódigo inválido.");
+            return;
+        }
+        if (linkCodes.get(normalized, System.currentTimeMillis()) != null) {
+            // One of ours: it is meant for Discord/web, not for /link <code>
+            player.sendMessage("§eEse código se usa en Discord (/link) o en la Web, no aquí.");
+            return;
+        }
 
-                if (source != null && sourceId != null) {
-                    processLinkAttempt(player, conn, source, sourceId, code);
-                }
+        io().run(() -> {
+            AccountLinker.Result result;
+            try (Connection conn = databaseModule.getConnection()) {
+                result = AccountLinker.link(conn, databaseModule.uuidCodec("linked_accounts"), player.getUniqueId(),
+                        player.getName(), code, System.currentTimeMillis());
             } catch (SQLException e) {
                 player.sendMessage("§cError de base de datos durante el enlace.");
                 e.printStackTrace();
+                return;
+            }
+
+            switch (result.outcome()) {
+                case INVALID_CODE, UNSUPPORTED_SOURCE -> player.sendMessage("§cCódigo inválido.");
+                case EXPIRED_CODE -> player.sendMessage("§cCódigo expirado.");
+                case LINKED -> onLinked(player, result.source(), result.sourceId());
             }
         });
     }
 
-    private void processLinkAttempt(Player player, Connection conn, String source, String sourceId, String code)
-            throws SQLException {
-
+    private void onLinked(Player player, String source, String sourceId) {
         String uuidStr = player.getUniqueId().toString();
-        String playerName = player.getName();
-
-        // Robust cleanup to avoid UNIQUE key collisions (web_user_id or discord_id)
-        if (source.equalsIgnoreCase("discord")) {
-            // Unlink anyone else from this discord account
-            try (PreparedStatement clean = conn.prepareStatement(
-                    "UPDATE linked_accounts SET discord_id = NULL, discord_tag = NULL WHERE discord_id = ?")) {
-                clean.setString(1, sourceId);
-                clean.executeUpdate();
-            }
-            // Unlink this player from any other discord
-            try (PreparedStatement clean = conn.prepareStatement(
-                    "UPDATE linked_accounts SET discord_id = NULL, discord_tag = NULL WHERE minecraft_uuid = ?")) {
-                clean.setString(1, uuidStr);
-                clean.executeUpdate();
-            }
-        } else if (source.equalsIgnoreCase("web")) {
-            // Unlink anyone else from this web account
-            try (PreparedStatement clean = conn
-                    .prepareStatement("UPDATE linked_accounts SET web_user_id = NULL WHERE web_user_id = ?")) {
-                clean.setString(1, sourceId);
-                clean.executeUpdate();
+        profileModule.invalidateOffline(player.getUniqueId());
+        profileModule.getLinkedUuids().add(player.getUniqueId());
+
+        // Update Profile Cache (SYNC TASK for Thread Safety)
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            CrystalProfile profile = profileModule.getProfile(player.getUniqueId());
+            if (profile != null) {
+                profile.setLinked(true);
+                if (source.equalsIgnoreCase("discord"))
+                    profile.setDiscordId(sourceId);
+                if (source.equalsIgnoreCase("web"))
+                    profile.setWebUserId(sourceId);
             }
-            // Unlink this player from any other web account
-            try (PreparedStatement clean = conn
-                    .prepareStatement("UPDATE linked_accounts SET web_user_id = NULL WHERE minecraft_uuid = ?")) {
-                clean.setString(1, uuidStr);
-                clean.executeUpdate();
+            // Tiers held before the link were skipped; write them now instead of at the next login
+            GachaModule gacha = plugin.getModuleManager().getModule(GachaModule.class);
+            if (gacha != null && player.isOnline()) {
+                gacha.scanAndSync(player);
             }
-        }
-
-        String query = "";
-        if (source.equalsIgnoreCase("discord")) {
-            query = "INSERT INTO linked_accounts (minecraft_uuid, minecraft_name, discord_id) VALUES (?, ?, ?) "
-                    + "ON DUPLICATE KEY UPDATE minecraft_name = ?, discord_id = ?";
-        } else if (source.equalsIgnoreCase("web")) {
-            query = "INSERT INTO linked_accounts (minecraft_uuid, minecraft_name, web_user_id) VALUES (?, ?, ?) "
-                    + "ON DUPLICATE KEY UPDATE minecraft_name = ?, web_user_id = ?";
-        }
-
-        if (!query.isEmpty()) {
-            try (PreparedStatement insert = conn.prepareStatement(query)) {
-                insert.setString(1, uuidStr);
-                insert.setString(2, playerName);
-                insert.setString(3, sourceId);
-                insert.setString(4, playerName);
-                insert.setString(5, sourceId);
-                insert.executeUpdate();
-
-                // Clean up empty rows
-                try (PreparedStatement cleanupEmpty = conn.prepareStatement(
-                        "DELETE FROM linked_accounts WHERE minecraft_uuid IS NULL AND discord_id IS NULL AND web_user_id IS NULL")) {
-                    cleanupEmpty.executeUpdate();
-                }
-
-                // Update Profile Cache
-                // Update Profile Cache (SYNC TASK for Thread Safety)
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    CrystalProfile profile = profileModule.getProfile(player.getUniqueId());
-                    if (profile != null) {
-                        profile.setLinked(true);
-                        if (source.equalsIgnoreCase("discord"))
-                            profile.setDiscordId(sourceId);
-                        if (source.equalsIgnoreCase("web"))
-                            profile.setWebUserId(sourceId);
-                    }
-                });
+        });
 
-                player.sendMessage("§a¡Cuenta vinculada con " + source + " exitosamente!");
+        player.sendMessage("§a¡Cuenta vinculada con " + source + " exitosamente!");
 
-                try (PreparedStatement cleanupCode = conn
-                        .prepareStatement("DELETE FROM universal_links WHERE code = ?")) {
-                    cleanupCode.setString(1, code.toUpperCase());
-                    cleanupCode.executeUpdate();
-                }
-            }
-        }
+        JsonObject event = new JsonObject();
+        event.addProperty("uuid", uuidStr);
+        event.addProperty("name", player.getName());
+        event.addProperty("source", source.toLowerCase());
+        event.addProperty("sourceId", sourceId);
+        publishEvent("link", "link:" + uuidStr, event);
     }
 
     private void handleLinkRequest(Player player) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            String chars = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
-            StringBuilder code = new StringBuilder();
-            java.util.Random rnd = new java.util.Random();
-            for (int i = 0; i < 6; i++) {
-                code.append(chars.charAt(rnd.nextInt(chars.length())));
-            }
-
-            long expiresAt = System.currentTimeMillis() + (15 * 60 * 1000); // 15 min
-
-            try (Connection conn = databaseModule.getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(
-                            "INSERT INTO universal_links (code, source, source_id, player_name, expires_at) VALUES (?, ?, ?, ?, ?) "
-                                    + "ON DUPLICATE KEY UPDATE expires_at = ?")) {
-                stmt.setString(1, code.toString());
-                stmt.setString(2, "minecraft");
-                stmt.setString(3, player.getUniqueId().toString());
-                stmt.setString(4, player.getName());
-                stmt.setLong(5, expiresAt);
-                stmt.setLong(6, expiresAt);
-                stmt.executeUpdate();
-
-                String codeStr = code.toString();
-                Component message = Component.text("[CrystalCore] ", NamedTextColor.AQUA)
-                        .append(Component.text("Tu código de vinculación es: ", NamedTextColor.GRAY))
-                        .append(Component.text(codeStr, NamedTextColor.YELLOW, TextDecoration.BOLD)
-                                .clickEvent(ClickEvent.copyToClipboard(codeStr))
-                                .hoverEvent(HoverEvent.showText(
-                                        Component.text("¡Haz clic para copiar el código!", NamedTextColor.GREEN))));
-
-                player.sendMessage(message);
-                player.sendMessage(Component.text("Úsalo en Discord (/link) o en la Web para conectar tus cuentas.",
-                        NamedTextColor.GRAY));
-                player.sendMessage(Component.text("(Expira en 15 minutos)", NamedTextColor.DARK_GRAY));
+        io().run(() -> {
+            long now = System.currentTimeMillis();
+            LinkCode linkCode;
+            try (Connection conn = databaseModule.getConnection()) {
+                linkCode = issueLinkCode(conn, player, now);
             } catch (SQLException e) {
                 player.sendMessage("§cError al generar código de vinculación.");
                 e.printStackTrace();
+                return;
+            }
+            if (linkCode == null) {
+                player.sendMessage("§cError al generar código de vinculación.");
+                return;
             }
+
+            String codeStr = linkCode.code();
+            Component message = Component.text("[CrystalCore] ", NamedTextColor.AQUA)
+                    .append(Component.text("Tu código de vinculación es: ", NamedTextColor.GRAY))
+                    .append(Component.text(codeStr, NamedTextColor.YELLOW, TextDecoration.BOLD)
+                            .clickEvent(ClickEvent.copyToClipboard(codeStr))
+                            .hoverEvent(HoverEvent.showText(
+                                    Component.text("¡Haz clic para copiar el código!", NamedTextColor.GREEN))));
+
+            player.sendMessage(message);
+            player.sendMessage(Component.text("Úsalo en Discord (/link) o en la Web para conectar tus cuentas.",
+                    NamedTextColor.GRAY));
+            player.sendMessage(Component.text("(Expira en 15 minutos)", NamedTextColor.DARK_GRAY));
         });
     }
 
+    /**
+     * Re-arms the player's current code if it is still unused, otherwise writes a new one.
+     * Either way universal_links is updated first, the store after.
+     */
+    private LinkCode issueLinkCode(Connection conn, Player player, long now) throws SQLException {
+        String uuidStr = player.getUniqueId().toString();
+        long expiresAt = now + LinkCodeStore.TTL_MS;
+        // The code can be used from Discord/web without us hearing about it: from here on, look them up
+        profileModule.getLinkedUuids().add(player.getUniqueId());
+
+        LinkCode current = linkCodes.active(player.getUniqueId(), now);
+        if (current != null) {
+            try (PreparedStatement refresh = conn.prepareStatement(
+                    "UPDATE universal_links SET expires_at = ? WHERE code = ? AND source = 'minecraft' AND source_id = ?")) {
+                refresh.setLong(1, expiresAt);
+                refresh.setString(2, current.code());
+                refresh.setString(3, uuidStr);
+                if (refresh.executeUpdate() > 0) {
+                    LinkCode refreshed = new LinkCode(current.code(), player.getUniqueId(), expiresAt);
+                    linkCodes.put(refreshed);
+                    return refreshed;
+                }
+            }
+            // Already consumed by Discord/web
+            linkCodes.remove(current);
+        }
+
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO universal_links (code, source, source_id, player_name, expires_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (int attempt = 0; attempt < 5; attempt++) {
+                String code = linkCodes.newCode();
+                insert.setString(1, code);
+                insert.setString(2, "minecraft");
+                insert.setString(3, uuidStr);
+                insert.setString(4, player.getName());
+                insert.setLong(5, expiresAt);
+                try {
+                    insert.executeUpdate();
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    continue; // Taken by a Discord/web code, never overwrite it
+                }
+                LinkCode issued = new LinkCode(code, player.getUniqueId(), expiresAt);
+                linkCodes.put(issued);
+                return issued;
+            }
+        }
+        return null;
+    }
+
     private void handleUnlink(Player player) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        io().run(() -> {
             try (Connection conn = databaseModule.getConnection();
                     PreparedStatement stmt = conn
                             .prepareStatement("DELETE FROM linked_accounts WHERE minecraft_uuid = ?")) {
-                stmt.setString(1, player.getUniqueId().toString());
+                databaseModule.uuidCodec("linked_accounts").bind(stmt, 1, player.getUniqueId());
                 if (stmt.executeUpdate() > 0) {
+                    profileModule.invalidateOffline(player.getUniqueId());
+                    // A pending code can still link them from Discord/web without us hearing about it
+                    if (!hasActiveLinkCode(player.getUniqueId())) {
+                        profileModule.getLinkedUuids().remove(player.getUniqueId());
+                    }
                     Bukkit.getScheduler().runTask(plugin, () -> {
                         CrystalProfile profile = profileModule.getProfile(player.getUniqueId());
                         if (profile != null) {
@@ -311,6 +389,12 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
                         }
                     });
                     player.sendMessage("§aCuenta desvinculada.");
+
+                    JsonObject event = new JsonObject();
+                    event.addProperty("uuid", player.getUniqueId().toString());
+                    event.addProperty("name", player.getName());
+                    // Same key as "link" so a link+unlink burst only sends the final state
+                    publishEvent("unlink", "link:" + player.getUniqueId(), event);
                 } else {
                     player.sendMessage("§cNo tienes una cuenta vinculada.");
                 }
@@ -321,20 +405,32 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
     }
 
     private void startCleanupTask() {
-        long interval = 20L * 60 * 30; // 30 minutes
+        long interval = 20L * Math.max(1, plugin.getConfig().getInt("web-bridge.code-purge-interval-seconds", 60));
         new BukkitRunnable() {
             @Override
             public void run() {
-                try (Connection conn = databaseModule.getConnection();
-                        PreparedStatement stmt = conn
-                                .prepareStatement("DELETE FROM universal_links WHERE expires_at < ?")) {
-                    stmt.setLong(1, System.currentTimeMillis());
-                    stmt.executeUpdate();
-                } catch (SQLException e) {
-                    // Ignore if db closed
-                }
+                long now = System.currentTimeMillis();
+                linkCodes.expire(now);
+                io().run(() -> purgeExpiredCodes(now));
             }
-        }.runTaskTimerAsynchronously(plugin, interval, interval);
+        }.runTaskTimer(plugin, interval, interval);
+    }
+
+    /**
+     * Deletes expired codes in small chunks (index on expires_at), so each
+     * statement holds its locks only briefly, however much has piled up.
+     */
+    private void purgeExpiredCodes(long now) {
+        try (Connection conn = databaseModule.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM universal_links WHERE expires_at < ? LIMIT " + CODE_PURGE_CHUNK)) {
+            stmt.setLong(1, now);
+            while (stmt.executeUpdate() == CODE_PURGE_CHUNK) {
+                // Full chunk, there may be more
+            }
+        } catch (SQLException e) {
+            // Ignore if db closed
+        }
     }
 
     private void startCommandQueueTask() {
@@ -344,51 +440,193 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
         new BukkitRunnable() {
             @Override
             public void run() {
-                checkForCommands();
+                io().run(WebBridgeModule.this::checkForCommands);
             }
-        }.runTaskTimerAsynchronously(plugin, 100L, 200L);
+        }.runTaskTimer(plugin, 100L, 200L);
     }
 
     private void checkForCommands() {
-        try (Connection conn = databaseModule.getConnection();
-                PreparedStatement psSelection = conn.prepareStatement(
-                        "SELECT id, command FROM web_pending_commands WHERE executed = FALSE ORDER BY created_at ASC LIMIT 5");
-                ResultSet rs = psSelection.executeQuery()) {
-
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String cmd = rs.getString("command");
-
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    plugin.getLogger().info("⚡ Executing web command: " + cmd);
-                    Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd);
-                    markCommandAsExecuted(id);
-                });
-            }
+        // Timer and REFRESH_COMMANDS can overlap: only one batch is claimed/drained at a time
+        if (!dispatching.compareAndSet(false, true)) {
+            refreshRequested.set(true);
+            return;
+        }
+        refreshRequested.set(false);
+
+        long start = System.nanoTime();
+        List<PendingCommand> batch;
+        try {
+            batch = claimBatch();
         } catch (SQLException e) {
+            checkTimer.recordSince(start);
+            dispatching.set(false);
             plugin.getLogger().log(Level.WARNING, "Error querying command queue", e);
+            return;
+        }
+
+        checkTimer.recordSince(start);
+        drainingCommands.set(batch.size());
+
+        if (batch.isEmpty()) {
+            dispatching.set(false);
+            return;
         }
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (!isEnabled()) {
+                // Disabled meanwhile: nothing ran, the claims expire and get retried
+                dispatching.set(false);
+                return;
+            }
+            drainTask = new CommandDrainTask(batch);
+            drainTask.runTaskTimer(plugin, 0L, 1L);
+        });
     }
 
-    private void markCommandAsExecuted(int id) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Connection conn = databaseModule.getConnection();
-                    PreparedStatement ps = conn.prepareStatement(
-                            "UPDATE web_pending_commands SET executed = TRUE, executed_at = CURRENT_TIMESTAMP WHERE id = ?")) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
+    private List<PendingCommand> claimBatch() throws SQLException {
+        // Unique per claim so concurrent claims (or other servers) never pick up our rows
+        String claimId = "crystalcore-" + UUID.randomUUID();
+        List<PendingCommand> batch = new ArrayList<>();
+
+        try (Connection conn = databaseModule.getConnection()) {
+            try (PreparedStatement claim = conn.prepareStatement(
+                    "UPDATE web_pending_commands SET claimed_by = ?, claimed_at = CURRENT_TIMESTAMP "
+                            + "WHERE executed = FALSE AND (claimed_by IS NULL OR claimed_at < CURRENT_TIMESTAMP - INTERVAL ? SECOND) "
+                            + "ORDER BY created_at ASC, id ASC LIMIT ?")) {
+                claim.setString(1, claimId);
+                claim.setInt(2, claimTimeoutSeconds);
+                claim.setInt(3, commandBatchSize);
+                int claimed = claim.executeUpdate();
+                claimedCommands.set(claimed);
+                if (claimed == 0) {
+                    return batch;
+                }
+            }
+
+            try (PreparedStatement select = conn.prepareStatement(
+                    "SELECT id, command FROM web_pending_commands WHERE claimed_by = ? AND executed = FALSE "
+                            + "ORDER BY created_at ASC, id ASC")) {
+                select.setString(1, claimId);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        batch.add(new PendingCommand(rs.getInt("id"), rs.getString("command")));
+                    }
+                }
+            }
+        }
+        return batch;
+    }
+
+    private void writeExecuted(List<Integer> ids) throws SQLException {
+        try (Connection conn = databaseModule.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE web_pending_commands SET executed = TRUE, executed_at = CURRENT_TIMESTAMP WHERE id IN ("
+                                + SqlUtil.placeholders(ids.size()) + ")")) {
+            int index = 1;
+            for (int id : ids) {
+                ps.setInt(index++, id);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private void markCommandsAsExecuted(List<Integer> ids, boolean fullBatch) {
+        io().run(() -> {
+            try {
+                writeExecuted(ids);
             } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to mark command " + id + " as executed", e);
+                // Claims expire after claim-timeout-seconds, so these would be dispatched again
+                plugin.getLogger().log(Level.SEVERE, "Failed to mark commands " + ids + " as executed", e);
+            } finally {
+                dispatching.set(false);
+            }
+
+            // A full batch likely means more are waiting; a refresh may also have arrived mid-drain
+            if (fullBatch || refreshRequested.get()) {
+                checkForCommands();
+            }
+        }).whenComplete((ignored, error) -> {
+            if (error instanceof RejectedExecutionException) {
+                // Never ran: release the dispatcher, the claims expire and get retried
+                dispatching.set(false);
             }
         });
     }
 
+    private record PendingCommand(int id, String command) {
+    }
+
+    /**
+     * Runs a claimed batch on the main thread, spreading it over ticks so
+     * bursts never take more than tick-budget-ms per tick.
+     */
+    private class CommandDrainTask extends BukkitRunnable {
+        private final Deque<PendingCommand> queue;
+        private final List<Integer> executedIds;
+        private final boolean fullBatch;
+
+        CommandDrainTask(List<PendingCommand> batch) {
+            this.queue = new ArrayDeque<>(batch);
+            this.executedIds = new ArrayList<>(batch.size());
+            this.fullBatch = batch.size() >= commandBatchSize;
+        }
+
+        @Override
+        public void run() {
+            long deadline = System.nanoTime() + tickBudgetNanos;
+            // Always make progress, even if a single command blows the budget
+            do {
+                PendingCommand pending = queue.poll();
+                if (pending == null)
+                    break;
+
+                plugin.getLogger().info("⚡ Executing web command: " + pending.command());
+                try {
+                    Bukkit.dispatchCommand(Bukkit.getConsoleSender(), pending.command());
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.WARNING, "Web command failed: " + pending.command(), e);
+                }
+                executedIds.add(pending.id());
+            } while (System.nanoTime() < deadline);
+
+            drainingCommands.set(queue.size());
+            if (queue.isEmpty()) {
+                cancel();
+                if (drainTask == this) {
+                    drainTask = null;
+                }
+                markCommandsAsExecuted(executedIds, fullBatch);
+            }
+        }
+
+        /**
+         * Cancels the rest of the batch and marks what already ran, blocking.
+         * The rest stays claimed and is retried once the claim expires.
+         */
+        void stop() {
+            cancel();
+            drainingCommands.set(0);
+            if (!executedIds.isEmpty()) {
+                try {
+                    writeExecuted(executedIds);
+                } catch (SQLException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to mark commands " + executedIds + " as executed", e);
+                }
+            }
+            dispatching.set(false);
+        }
+    }
+
     // Inner class for PAPI
     public static class CrystalCoreExpansion extends me.clip.placeholderapi.expansion.PlaceholderExpansion {
         private final CrystalCore plugin;
+        // Polled per player every few ticks by scoreboards/tab
+        private final ModuleHandle<ProfileModule> profiles;
+        private final ModuleHandle<BancoModule> banco;
 
         public CrystalCoreExpansion(CrystalCore plugin) {
             this.plugin = plugin;
+            this.profiles = plugin.getModuleManager().handle(ProfileModule.class);
+            this.banco = plugin.getModuleManager().handle(BancoModule.class);
         }
 
         @Override
@@ -415,15 +653,46 @@ public class WebBridgeModule extends CrystalModule implements CommandExecutor {
         public String onPlaceholderRequest(Player player, String identifier) {
             if (player == null)
                 return "";
-            if (identifier.equals("status")) {
-                ProfileModule pm = plugin.getModuleManager().getModule(ProfileModule.class);
-                if (pm != null) {
-                    CrystalProfile profile = pm.getProfile(player.getUniqueId());
-                    if (profile != null)
-                        return profile.isLinked() ? "§aLinked" : "§cUnlinked";
-                }
-                return "§cLoading";
+            if (identifier.startsWith("top_"))
+                return topPlaceholder(player, identifier);
+            ProfileModule pm = profiles.get();
+            CrystalProfile profile = pm != null ? pm.getProfile(player.getUniqueId()) : null;
+            if (profile == null)
+                return identifier.equals("status") ? "§cLoading" : "";
+            // Pre-rendered per profile: no formatting or allocation per request
+            return profile.getPlaceholders().get(identifier);
+        }
+
+        /**
+         * top_position, top_N, top_N_name, top_N_balance; served from the leaderboard's cached list.
+         */
+        private String topPlaceholder(Player player, String identifier) {
+            BancoModule bancoModule = banco.getIfEnabled();
+            if (bancoModule == null)
+                return "";
+            Leaderboard leaderboard = bancoModule.getLeaderboard();
+
+            if (identifier.equals("top_position")) {
+                int position = leaderboard.positionOf(player.getName());
+                return position > 0 ? leaderboard.positionText(position) : "-";
+            }
+
+            // Parse N in place, no substring
+            int index = 4;
+            int position = 0;
+            while (index < identifier.length() && index < 8 && Character.isDigit(identifier.charAt(index))) {
+                position = position * 10 + (identifier.charAt(index++) - '0');
             }
+            if (index == 4)
+                return null;
+
+            Leaderboard.Entry entry = leaderboard.getTop(position);
+            if (index == identifier.length())
+                return entry != null ? entry.line() : "---";
+            if (identifier.startsWith("_name", index) && index + 5 == identifier.length())
+                return entry != null ? entry.name() : "---";
+            if (identifier.startsWith("_balance", index) && index + 8 == identifier.length())
+                return entry != null ? entry.compact() : "";
             return null;
         }
     }
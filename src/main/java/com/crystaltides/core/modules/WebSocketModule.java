@@ -2,14 +2,21 @@ package com.crystaltides.core.modules;
 
 import com.crystaltides.core.CrystalCore;
 import com.crystaltides.core.api.CrystalModule;
+import com.crystaltides.core.api.ModuleHandle;
+import com.crystaltides.core.economy.Leaderboard;
 import com.crystaltides.core.network.CrystalWebSocketServer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 
 public class WebSocketModule extends CrystalModule {
 
     private CrystalWebSocketServer server;
+    private final ModuleHandle<BancoModule> banco;
 
     public WebSocketModule(CrystalCore plugin) {
         super(plugin, "WebSocket");
+        this.banco = plugin.getModuleManager().handle(BancoModule.class);
     }
 
     @Override
@@ -18,6 +25,10 @@ public class WebSocketModule extends CrystalModule {
         String secret = plugin.getConfig().getString("websocket.secret-token", "changeme");
 
         server = new CrystalWebSocketServer(plugin, port, secret);
+        // Metrics export: {"v":1,"id":"x","type":"stats"}
+        server.registerHandler("stats", payload -> plugin.getMetrics().toJson());
+        // {"v":1,"id":"x","type":"leaderboard","payload":{"player":"Name"}} -> cached top list (+ player's position)
+        server.registerHandler("leaderboard", this::leaderboard);
         server.start();
 
         super.onEnable();
@@ -36,6 +47,32 @@ public class WebSocketModule extends CrystalModule {
         super.onDisable();
     }
 
+    private JsonElement leaderboard(JsonObject payload) {
+        BancoModule banco = this.banco.getIfEnabled();
+        if (banco == null) {
+            throw new IllegalStateException("BancoBridge is not enabled");
+        }
+
+        Leaderboard leaderboard = banco.getLeaderboard();
+        JsonArray entries = new JsonArray();
+        for (Leaderboard.Entry entry : leaderboard.getTop()) {
+            JsonObject json = new JsonObject();
+            json.addProperty("position", entry.position());
+            json.addProperty("name", entry.name());
+            json.addProperty("balance", entry.balance());
+            json.addProperty("compact", entry.compact());
+            entries.add(json);
+        }
+
+        JsonObject result = new JsonObject();
+        result.add("entries", entries);
+        result.addProperty("total", leaderboard.size());
+        if (payload.has("player")) {
+            result.addProperty("position", leaderboard.positionOf(payload.get("player").getAsString()));
+        }
+        return result;
+    }
+
     public CrystalWebSocketServer getServer() {
         return server;
     }
@@ -0,0 +1,65 @@
+package com.crystaltides.core.network;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Versioned JSON message format shared by the WebSocket server and client.
+ *
+ * <pre>
+ * Request (single op):  {"v":1, "id":"a1", "type":"alert", "payload":{"message":"..."}}
+ * Request (batched):    {"v":1, "ops":[{"id":"a1","type":"alert","payload":{...}}, ...]}
+ * Reply (one per frame): {"v":1, "type":"ack", "acks":[{"id":"a1","ok":true}, {"id":"a2","ok":false,"error":"..."}]}
+ * </pre>
+ *
+ * Frames may be sent as text or as binary (UTF-8 JSON); replies use the same
+ * frame type as the request. Plain "alert:" / "console:" strings are still accepted.
+ */
+public final class CrystalProtocol {
+
+    public static final int VERSION = 1;
+
+    public static final String OP_ALERT = "alert";
+    public static final String OP_CONSOLE = "console";
+    public static final String OP_PING = "ping";
+    public static final String TYPE_ACK = "ack";
+
+    private CrystalProtocol() {
+    }
+
+    public static JsonObject frame(String type) {
+        JsonObject frame = new JsonObject();
+        frame.addProperty("v", VERSION);
+        frame.addProperty("type", type);
+        return frame;
+    }
+
+    public static JsonObject ackFrame(JsonArray acks) {
+        JsonObject frame = frame(TYPE_ACK);
+        frame.add("acks", acks);
+        return frame;
+    }
+
+    public static JsonObject ack(String id, boolean ok, String error, JsonElement payload) {
+        JsonObject ack = new JsonObject();
+        ack.addProperty("id", id);
+        ack.addProperty("ok", ok);
+        if (error != null) {
+            ack.addProperty("error", error);
+        }
+        if (payload != null) {
+            ack.add("payload", payload);
+        }
+        return ack;
+    }
+
+    /**
+     * Handles a request/response operation registered on the server.
+     * Runs on the WebSocket thread; the returned element becomes the ack payload.
+     */
+    @FunctionalInterface
+    public interface OperationHandler {
+        JsonElement handle(JsonObject payload) throws Exception;
+    }
+}
@@ -1,22 +1,36 @@
 package com.crystaltides.core.network;
 
 import com.crystaltides.core.CrystalCore;
+import com.crystaltides.core.metrics.Counter;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 import net.kyori.adventure.text.Component;
 
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CrystalWebSocketServer extends WebSocketServer {
 
     private final CrystalCore plugin;
     private final String expectedToken;
+    private final Map<String, CrystalProtocol.OperationHandler> handlers = new ConcurrentHashMap<>();
+    private final Counter messages;
 
     public CrystalWebSocketServer(CrystalCore plugin, int port, String expectedToken) {
         super(new InetSocketAddress(port));
         this.plugin = plugin;
         this.expectedToken = expectedToken;
+        this.messages = plugin.getMetrics().counter("websocket.messages");
     }
 
     @Override
@@ -43,9 +57,22 @@ public class CrystalWebSocketServer extends WebSocketServer {
         // Silent close for now
     }
 
+    /**
+     * Registers a request/response operation (e.g. "stats") for structured frames.
+     */
+    public void registerHandler(String type, CrystalProtocol.OperationHandler handler) {
+        handlers.put(type, handler);
+    }
+
     @Override
     public void onMessage(WebSocket conn, String message) {
-        // Handle incoming commands
+        messages.increment();
+        if (!message.isEmpty() && message.charAt(0) == '{') {
+            handleFrame(conn, message, false);
+            return;
+        }
+
+        // Legacy prefix commands
         if (message.startsWith("alert:")) {
             String msg = message.substring(6);
             plugin.getServer().broadcast(Component.text("§c§l[ALERTA WEB] §f" + msg));
@@ -57,6 +84,147 @@ public class CrystalWebSocketServer extends WebSocketServer {
         }
     }
 
+    @Override
+    public void onMessage(WebSocket conn, ByteBuffer message) {
+        messages.increment();
+        handleFrame(conn, StandardCharsets.UTF_8.decode(message).toString(), true);
+    }
+
+    private void handleFrame(WebSocket conn, String json, boolean binary) {
+        JsonArray acks = new JsonArray();
+        JsonObject frame;
+        try {
+            frame = JsonParser.parseString(json).getAsJsonObject();
+        } catch (RuntimeException e) {
+            acks.add(CrystalProtocol.ack(null, false, "malformed frame", null));
+            reply(conn, acks, binary);
+            return;
+        }
+
+        JsonElement versionElement = frame.get("v");
+        int version = versionElement != null && versionElement.isJsonPrimitive()
+                && versionElement.getAsJsonPrimitive().isNumber() ? versionElement.getAsInt() : 0;
+        if (version != CrystalProtocol.VERSION) {
+            acks.add(CrystalProtocol.ack(null, false, "unsupported version " + version, null));
+            reply(conn, acks, binary);
+            return;
+        }
+
+        JsonArray ops;
+        if (frame.has("ops")) {
+            if (!frame.get("ops").isJsonArray()) {
+                acks.add(CrystalProtocol.ack(null, false, "ops must be an array", null));
+                reply(conn, acks, binary);
+                return;
+            }
+            ops = frame.getAsJsonArray("ops");
+        } else {
+            ops = new JsonArray();
+            ops.add(frame);
+        }
+
+        // Alerts of one frame become a single broadcast, console commands a single main-thread task
+        StringBuilder alerts = new StringBuilder();
+        List<String> consoleIds = new ArrayList<>();
+        List<String> consoleCommands = new ArrayList<>();
+
+        for (JsonElement element : ops) {
+            // A malformed op only fails its own ack, the rest of the frame still runs
+            if (!element.isJsonObject()) {
+                acks.add(CrystalProtocol.ack(null, false, "operation must be an object", null));
+                continue;
+            }
+            JsonObject op = element.getAsJsonObject();
+            String id = stringOrNull(op.get("id"));
+            String type = stringOrNull(op.get("type"));
+            if (type == null) {
+                acks.add(CrystalProtocol.ack(id, false, "missing type", null));
+                continue;
+            }
+            JsonElement payloadElement = op.get("payload");
+            if (payloadElement != null && !payloadElement.isJsonObject()) {
+                acks.add(CrystalProtocol.ack(id, false, "payload must be an object", null));
+                continue;
+            }
+            JsonObject payload = payloadElement != null ? payloadElement.getAsJsonObject() : new JsonObject();
+
+            try {
+                switch (type) {
+                    case CrystalProtocol.OP_ALERT:
+                        if (alerts.length() > 0) {
+                            alerts.append('\n');
+                        }
+                        alerts.append("§c§l[ALERTA WEB] §f").append(requireString(payload, "message"));
+                        acks.add(CrystalProtocol.ack(id, true, null, null));
+                        break;
+                    case CrystalProtocol.OP_CONSOLE:
+                        String command = requireString(payload, "command");
+                        consoleIds.add(id);
+                        consoleCommands.add(command);
+                        break;
+                    case CrystalProtocol.OP_PING:
+                        acks.add(CrystalProtocol.ack(id, true, null, null));
+                        break;
+                    default:
+                        CrystalProtocol.OperationHandler handler = handlers.get(type);
+                        if (handler == null) {
+                            acks.add(CrystalProtocol.ack(id, false, "unknown type " + type, null));
+                        } else {
+                            acks.add(CrystalProtocol.ack(id, true, null, handler.handle(payload)));
+                        }
+                }
+            } catch (Exception e) {
+                acks.add(CrystalProtocol.ack(id, false, String.valueOf(e.getMessage()), null));
+            }
+        }
+
+        if (alerts.length() > 0) {
+            plugin.getServer().broadcast(Component.text(alerts.toString()));
+        }
+
+        if (consoleCommands.isEmpty()) {
+            reply(conn, acks, binary);
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            for (int i = 0; i < consoleCommands.size(); i++) {
+                boolean ok;
+                try {
+                    ok = plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(), consoleCommands.get(i));
+                } catch (Exception e) {
+                    ok = false;
+                }
+                acks.add(CrystalProtocol.ack(consoleIds.get(i), ok, ok ? null : "command failed", null));
+            }
+            reply(conn, acks, binary);
+        });
+    }
+
+    private static String stringOrNull(JsonElement element) {
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    private static String requireString(JsonObject payload, String key) {
+        String value = stringOrNull(payload.get(key));
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + key);
+        }
+        return value;
+    }
+
+    private void reply(WebSocket conn, JsonArray acks, boolean binary) {
+        if (acks.isEmpty() || conn == null || !conn.isOpen())
+            return;
+
+        String json = CrystalProtocol.ackFrame(acks).toString();
+        if (binary) {
+            conn.send(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        } else {
+            conn.send(json);
+        }
+    }
+
     @Override
     public void onError(WebSocket conn, Exception ex) {
         plugin.getLogger().warning("WebSocket Error: " + ex.getMessage());
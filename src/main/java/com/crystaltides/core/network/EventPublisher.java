@@ -0,0 +1,121 @@
+package com.crystaltides.core.network;
+
+import com.crystaltides.core.CrystalCore;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.java_websocket.client.WebSocketClient;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Pushes change events (links, tiers, presence...) to the web backend over the
+ * outbound WebSocket client.
+ * <p>
+ * Events are merged by key for a short window, so 50 presence changes go out
+ * as one frame and only the latest state of each key is sent:
+ *
+ * <pre>
+ * {"v":1, "type":"events", "epoch":1718000000000, "seq":42,
+ *  "events":[{"type":"presence", "key":"presence:&lt;uuid&gt;", "data":{...}}, ...]}
+ * </pre>
+ *
+ * {@code seq} grows by one per frame within an {@code epoch} (plugin start), so
+ * the web side can detect a gap or a restart and resync from the database.
+ */
+public class EventPublisher {
+
+    public static final String TYPE_EVENTS = "events";
+    public static final String TYPE_HELLO = "hello";
+
+    private static final int MAX_PENDING = 10_000;
+
+    private final CrystalCore plugin;
+    private final Supplier<WebSocketClient> client;
+    private final long epoch = System.currentTimeMillis();
+    private final Map<String, JsonObject> pending = new LinkedHashMap<>();
+    private long sequence;
+    private boolean overflowed;
+
+    public EventPublisher(CrystalCore plugin, Supplier<WebSocketClient> client) {
+        this.plugin = plugin;
+        this.client = client;
+    }
+
+    /**
+     * Queues an event. A pending event with the same key is replaced, keeping
+     * its original position in the frame.
+     */
+    public void publish(String type, String key, JsonObject data) {
+        JsonObject event = new JsonObject();
+        event.addProperty("type", type);
+        event.addProperty("key", key);
+        event.add("data", data);
+
+        synchronized (pending) {
+            pending.put(key, event);
+            if (pending.size() > MAX_PENDING) {
+                // Web has been unreachable for a while: drop the oldest and ask it to resync
+                Iterator<String> oldest = pending.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                overflowed = true;
+            }
+        }
+    }
+
+    /**
+     * Sends everything merged since the last flush as one frame. Events stay
+     * queued while the client is disconnected.
+     */
+    public void flush() {
+        WebSocketClient ws = client.get();
+        if (ws == null || !ws.isOpen())
+            return;
+
+        String frame;
+        synchronized (pending) {
+            if (pending.isEmpty())
+                return;
+
+            JsonArray events = new JsonArray(pending.size());
+            for (JsonObject event : pending.values()) {
+                events.add(event);
+            }
+            pending.clear();
+
+            JsonObject json = CrystalProtocol.frame(TYPE_EVENTS);
+            json.addProperty("epoch", epoch);
+            json.addProperty("seq", ++sequence);
+            json.add("events", events);
+            frame = json.toString();
+        }
+
+        try {
+            ws.send(frame);
+        } catch (Exception e) {
+            // The frame's seq is lost, which the web side sees as a gap and resyncs
+            plugin.getLogger().warning("Could not push " + TYPE_EVENTS + " frame: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sent on every (re)connect so the web side knows where the stream stands.
+     */
+    public void sendHello() {
+        WebSocketClient ws = client.get();
+        if (ws == null || !ws.isOpen())
+            return;
+
+        JsonObject hello = CrystalProtocol.frame(TYPE_HELLO);
+        synchronized (pending) {
+            hello.addProperty("epoch", epoch);
+            hello.addProperty("seq", sequence);
+            hello.addProperty("resync", overflowed);
+            overflowed = false;
+        }
+        ws.send(hello.toString());
+    }
+}
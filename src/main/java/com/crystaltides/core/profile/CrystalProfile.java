@@ -1,9 +1,18 @@
 package com.crystaltides.core.profile;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CrystalProfile {
 
+    // One bit per column of player_profiles; the name is written along with any of them
+    public static final int DIRTY_LAST_SEEN = 1;
+
     private final UUID uuid;
     private final String playerName;
 
@@ -11,6 +20,7 @@ public class CrystalProfile {
     private volatile boolean linked;
     private volatile String discordId;
     private volatile String webUserId;
+    private volatile String presence;
 
     // Stats
     private volatile long lastSeen;
@@ -18,6 +28,16 @@ public class CrystalProfile {
     // Economy (Future placeholder)
     private volatile long killucoins;
 
+    // Gacha tiers unlocked (sorted, immutable)
+    private volatile Set<String> tiers = Set.of();
+
+    // Bumped after every placeholder-relevant change; the snapshot is rebuilt when it lags behind
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile PlaceholderSnapshot snapshot;
+
+    // Persisted fields changed since the last save (DIRTY_* bits)
+    private final AtomicInteger dirty = new AtomicInteger();
+
     public CrystalProfile(UUID uuid, String playerName) {
         this.uuid = uuid;
         this.playerName = playerName;
@@ -38,7 +58,10 @@ public class CrystalProfile {
     }
 
     public void setLinked(boolean linked) {
-        this.linked = linked;
+        if (this.linked != linked) {
+            this.linked = linked;
+            version.incrementAndGet();
+        }
     }
 
     public String getDiscordId() {
@@ -46,7 +69,10 @@ public class CrystalProfile {
     }
 
     public void setDiscordId(String discordId) {
-        this.discordId = discordId;
+        if (!Objects.equals(this.discordId, discordId)) {
+            this.discordId = discordId;
+            version.incrementAndGet();
+        }
     }
 
     public String getWebUserId() {
@@ -54,7 +80,21 @@ public class CrystalProfile {
     }
 
     public void setWebUserId(String webUserId) {
-        this.webUserId = webUserId;
+        if (!Objects.equals(this.webUserId, webUserId)) {
+            this.webUserId = webUserId;
+            version.incrementAndGet();
+        }
+    }
+
+    public String getPresence() {
+        return presence;
+    }
+
+    public void setPresence(String presence) {
+        if (!Objects.equals(this.presence, presence)) {
+            this.presence = presence;
+            version.incrementAndGet();
+        }
     }
 
     public long getLastSeen() {
@@ -62,7 +102,10 @@ public class CrystalProfile {
     }
 
     public void setLastSeen(long lastSeen) {
-        this.lastSeen = lastSeen;
+        if (this.lastSeen != lastSeen) {
+            this.lastSeen = lastSeen;
+            markDirty(DIRTY_LAST_SEEN);
+        }
     }
 
     public long getKillucoins() {
@@ -70,6 +113,51 @@ public class CrystalProfile {
     }
 
     public void setKillucoins(long killucoins) {
-        this.killucoins = killucoins;
+        if (this.killucoins != killucoins) {
+            this.killucoins = killucoins;
+            version.incrementAndGet();
+        }
+    }
+
+    public Set<String> getTiers() {
+        return tiers;
+    }
+
+    public synchronized void addTiers(Collection<String> unlocked) {
+        if (tiers.containsAll(unlocked))
+            return;
+        Set<String> merged = new TreeSet<>(tiers);
+        merged.addAll(unlocked);
+        this.tiers = Collections.unmodifiableSet(merged);
+        version.incrementAndGet();
+    }
+
+    public void markDirty(int fields) {
+        dirty.accumulateAndGet(fields, (current, added) -> current | added);
+    }
+
+    public boolean isDirty() {
+        return dirty.get() != 0;
+    }
+
+    /**
+     * Clears and returns the dirty bits. A failed save hands them back through {@link #markDirty(int)}.
+     */
+    public int takeDirty() {
+        return dirty.getAndSet(0);
+    }
+
+    /**
+     * Placeholder values, rebuilt only if something changed since the last call.
+     */
+    public PlaceholderSnapshot getPlaceholders() {
+        PlaceholderSnapshot current = snapshot;
+        int expected = version.get();
+        if (current == null || current.version != expected) {
+            // Read the version first: a change racing with the build bumps it again and forces a rebuild
+            current = new PlaceholderSnapshot(this, expected);
+            snapshot = current;
+        }
+        return current;
     }
 }
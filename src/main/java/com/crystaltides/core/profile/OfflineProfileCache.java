@@ -0,0 +1,129 @@
+package com.crystaltides.core.profile;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Profiles of players who quit recently, so a quick rejoin (crash, server hop,
+ * AFK kick) is served without MySQL or SQLite. Entries expire after a TTL and
+ * the least recently used go first once the estimated size passes the limit.
+ */
+public class OfflineProfileCache {
+
+    // Object header, fields and the LinkedHashMap node + UUID key that hold an entry
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private static final class Entry {
+        final String name;
+        final boolean linked;
+        final String discordId;
+        final String webUserId;
+        final long killucoins;
+        final String[] tiers;
+        // Banco's data version when the balance was read
+        final long economyVersion;
+        final long expiresAt;
+        final int bytes;
+
+        Entry(CrystalProfile profile, long economyVersion, long expiresAt) {
+            this.name = profile.getPlayerName();
+            this.linked = profile.isLinked();
+            this.discordId = profile.getDiscordId();
+            this.webUserId = profile.getWebUserId();
+            this.killucoins = profile.getKillucoins();
+            // Tier names are shared with the tier table, only the array is ours
+            this.tiers = profile.getTiers().toArray(new String[0]);
+            this.economyVersion = economyVersion;
+            this.expiresAt = expiresAt;
+            this.bytes = ENTRY_OVERHEAD + sizeOf(name) + sizeOf(discordId) + sizeOf(webUserId) + 16 + 4 * tiers.length;
+        }
+    }
+
+    public record Hit(CrystalProfile profile, long economyVersion) {
+    }
+
+    private final long maxBytes;
+    private final long ttlMs;
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    public OfflineProfileCache(long maxBytes, long ttlMs) {
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+    }
+
+    public synchronized void put(CrystalProfile profile, long economyVersion, long now) {
+        if (maxBytes <= 0 || ttlMs <= 0)
+            return;
+        Entry entry = new Entry(profile, economyVersion, now + ttlMs);
+        Entry previous = entries.put(profile.getUuid(), entry);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += entry.bytes;
+        evict(now);
+    }
+
+    /**
+     * Removes and rebuilds the player's profile, or null if not cached, expired
+     * or cached under another name.
+     */
+    public synchronized Hit take(UUID uuid, String name, long now) {
+        Entry entry = entries.remove(uuid);
+        if (entry == null)
+            return null;
+        bytes -= entry.bytes;
+        if (now > entry.expiresAt || !entry.name.equals(name))
+            return null;
+
+        CrystalProfile profile = new CrystalProfile(uuid, entry.name);
+        profile.setLinked(entry.linked);
+        profile.setDiscordId(entry.discordId);
+        profile.setWebUserId(entry.webUserId);
+        profile.setKillucoins(entry.killucoins);
+        if (entry.tiers.length > 0) {
+            profile.addTiers(List.of(entry.tiers));
+        }
+        return new Hit(profile, entry.economyVersion);
+    }
+
+    public synchronized void invalidate(UUID uuid) {
+        Entry entry = entries.remove(uuid);
+        if (entry != null) {
+            bytes -= entry.bytes;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<UUID, Entry>> it = entries.entrySet().iterator();
+        // Least recently used first: drop while over budget, and expired ones at the head
+        while (it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (bytes <= maxBytes && now <= eldest.expiresAt)
+                break;
+            it.remove();
+            bytes -= eldest.bytes;
+        }
+    }
+
+    private static int sizeOf(String value) {
+        // Latin-1 compact string: header + byte[] header + one byte per char
+        return value == null ? 0 : 40 + value.length();
+    }
+}
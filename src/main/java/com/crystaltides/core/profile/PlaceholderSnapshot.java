@@ -0,0 +1,66 @@
+package com.crystaltides.core.profile;
+
+import com.crystaltides.core.economy.Denomination;
+import com.crystaltides.core.economy.DenominationFormatter;
+
+/**
+ * Pre-rendered placeholder values for one profile. Built only after a profile
+ * field changed; serving a placeholder is then a field read.
+ */
+public final class PlaceholderSnapshot {
+
+    final int version;
+
+    final String status;
+    final String linked;
+    final String discord;
+    final String web;
+    final String balance;
+    final String balanceFormatted;
+    final String balanceGrouped;
+    final String balanceBreakdown;
+    final String rank;
+    final String tiers;
+    final String tiersCount;
+    final String staffStatus;
+
+    PlaceholderSnapshot(CrystalProfile profile, int version) {
+        this.version = version;
+        this.status = profile.isLinked() ? "§aLinked" : "§cUnlinked";
+        this.linked = String.valueOf(profile.isLinked());
+        this.discord = profile.getDiscordId() != null ? "§aVinculado" : "§cNo vinculado";
+        this.web = profile.getWebUserId() != null ? "§aVinculado" : "§cNo vinculado";
+
+        long killucoins = profile.getKillucoins();
+        this.balance = Long.toString(killucoins);
+        this.balanceFormatted = DenominationFormatter.compact(killucoins);
+        this.balanceGrouped = DenominationFormatter.grouped(killucoins);
+        this.balanceBreakdown = DenominationFormatter.breakdown(killucoins);
+        this.rank = Denomination.rankOf(killucoins).getDisplayName();
+
+        this.tiers = profile.getTiers().isEmpty() ? "Ninguno" : String.join(", ", profile.getTiers());
+        this.tiersCount = Integer.toString(profile.getTiers().size());
+        this.staffStatus = profile.getPresence() != null ? profile.getPresence() : "OFFLINE";
+    }
+
+    /**
+     * Value for %crystalcore_<identifier>%, or null if the identifier is unknown.
+     */
+    public String get(String identifier) {
+        return switch (identifier) {
+            case "status" -> status;
+            case "linked" -> linked;
+            case "discord" -> discord;
+            case "web" -> web;
+            case "balance" -> balance;
+            case "balance_formatted" -> balanceFormatted;
+            case "balance_grouped" -> balanceGrouped;
+            case "balance_breakdown" -> balanceBreakdown;
+            case "rank" -> rank;
+            case "tiers" -> tiers;
+            case "tiers_count" -> tiersCount;
+            case "staff_status" -> staffStatus;
+            default -> null;
+        };
+    }
+}